@@ -2,8 +2,10 @@ package rs.example.carbon_traders;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CarbonTradersApplication {
 
 	public static void main(String[] args) {
@@ -1,30 +1,54 @@
 package rs.example.carbon_traders.admin.controller;
 
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import rs.example.carbon_traders.admin.service.AdminService;
+import rs.example.carbon_traders.common.response.CursorPage;
+import rs.example.carbon_traders.company.dto.CompanySummary;
+import rs.example.carbon_traders.farmer.dto.FarmerSummary;
 import rs.example.carbon_traders.farmer.entity.Farmer;
 import rs.example.carbon_traders.company.entity.Company;
+import rs.example.carbon_traders.transaction.dto.TransactionSummary;
+import rs.example.carbon_traders.transaction.enums.ExportFormat;
+import rs.example.carbon_traders.transaction.service.TransactionExportService;
+import rs.example.carbon_traders.transaction.service.TransactionService;
 
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
 
     private final AdminService adminService;
+    private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
 
-    public AdminController(AdminService adminService) {
+    public AdminController(AdminService adminService,
+                           TransactionService transactionService,
+                           TransactionExportService transactionExportService) {
         this.adminService = adminService;
+        this.transactionService = transactionService;
+        this.transactionExportService = transactionExportService;
     }
 
     // farmer
 
     @GetMapping("/farmers")
-    public ResponseEntity<List<Farmer>> getAllFarmers() {
-        return ResponseEntity.ok(adminService.getAllFarmers());
+    public ResponseEntity<CursorPage<FarmerSummary>> getFarmers(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(adminService.getFarmers(cursor, size));
     }
 
     @PutMapping("/farmer/{id}/verify")
@@ -40,8 +64,10 @@ public class AdminController {
     // company
 
     @GetMapping("/companies")
-    public ResponseEntity<List<Company>> getAllCompanies() {
-        return ResponseEntity.ok(adminService.getAllCompanies());
+    public ResponseEntity<CursorPage<CompanySummary>> getCompanies(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(adminService.getCompanies(cursor, size));
     }
 
     @PutMapping("/company/{id}/verify")
@@ -49,12 +75,98 @@ public class AdminController {
         return ResponseEntity.ok(adminService.verifyCompany(id));
     }
 
+    // transactions
+
+    @GetMapping("/transactions")
+    public ResponseEntity<CursorPage<TransactionSummary>> getTransactions(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(transactionService.getTransactions(cursor, size));
+    }
+
+    // full ledger for auditors, streamed row by row; gzip when the client accepts it
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long companyId,
+            HttpServletRequest request) {
+
+        LocalDateTime start = from == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : from.atStartOfDay();
+        LocalDateTime end = to == null ? LocalDateTime.of(9999, 1, 1, 0, 0) : to.plusDays(1).atStartOfDay();
+
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024);
+                transactionExportService.export(format, start, end, companyId, compressed);
+                compressed.finish();
+            } else {
+                transactionExportService.export(format, start, end, companyId, out);
+            }
+        };
+
+        String fileName = "credit_transactions." + (format == ExportFormat.CSV ? "csv" : "ndjson");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(format == ExportFormat.CSV
+                        ? new MediaType("text", "csv")
+                        : new MediaType("application", "x-ndjson"));
+        // the body depends on Accept-Encoding, caches must key on it either way
+        response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     // dashboad
 
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> getDashboardStats() {
         return ResponseEntity.ok(adminService.getPlatformStats());
     }
+
+    // recount from the tables now, returns the drift that was corrected
+    @PostMapping("/dashboard/reconcile")
+    public ResponseEntity<Map<String, Object>> reconcileDashboardStats() {
+        return ResponseEntity.ok(adminService.reconcilePlatformStats());
+    }
+
+    // helpers
+
+    // an explicit gzip entry decides, otherwise a "*" entry does; q=0 means "not acceptable"
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().toLowerCase(Locale.ROOT);
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        Double quality = gzip != null ? gzip : wildcard;
+        return quality != null && quality > 0;
+    }
 }
 
 
@@ -1,18 +1,20 @@
 package rs.example.carbon_traders.admin.service;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import rs.example.carbon_traders.common.response.CursorPage;
+import rs.example.carbon_traders.company.dto.CompanySummary;
+import rs.example.carbon_traders.farmer.dto.FarmerSummary;
 import rs.example.carbon_traders.farmer.entity.Farmer;
 import rs.example.carbon_traders.farmer.repository.FarmerRepository;
 import rs.example.carbon_traders.company.entity.Company;
 import rs.example.carbon_traders.company.repository.CompanyRepository;
-import rs.example.carbon_traders.user.repository.UserRepository;
 
 @Service
 @Transactional
@@ -20,26 +22,32 @@ public class AdminService {
 
     private final FarmerRepository farmerRepository;
     private final CompanyRepository companyRepository;
-    private final UserRepository userRepository;
+    private final PlatformStatsService platformStatsService;
 
     public AdminService(FarmerRepository farmerRepository,
                         CompanyRepository companyRepository,
-                        UserRepository userRepository) {
+                        PlatformStatsService platformStatsService) {
         this.farmerRepository = farmerRepository;
         this.companyRepository = companyRepository;
-        this.userRepository = userRepository;
+        this.platformStatsService = platformStatsService;
     }
 
     //FARMER
 
-    public List<Farmer> getAllFarmers() {
-        return farmerRepository.findAll();
+    // keyset paginated, cursor is the last farmer id of the previous page
+    @Transactional(readOnly = true)
+    public CursorPage<FarmerSummary> getFarmers(Long cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<FarmerSummary> rows = farmerRepository.findSummariesAfter(
+                cursor == null ? 0L : cursor, PageRequest.ofSize(pageSize + 1));
+        return CursorPage.of(rows, pageSize, FarmerSummary::getId);
     }
 
     public Farmer verifyFarmer(Long farmerId) {
         Farmer farmer = farmerRepository.findById(farmerId)
                 .orElseThrow(() -> new RuntimeException("Farmer not found"));
 
+        platformStatsService.farmerVerificationChanged(farmer.isVerified(), true);
         farmer.setVerified(true);
         farmer.setVerifiedAt(LocalDateTime.now());
 
@@ -50,20 +58,26 @@ public class AdminService {
         Farmer farmer = farmerRepository.findById(farmerId)
                 .orElseThrow(() -> new RuntimeException("Farmer not found"));
 
+        platformStatsService.farmerVerificationChanged(farmer.isVerified(), false);
         farmer.setVerified(false);
         return farmerRepository.save(farmer);
     }
 
     // COMPANY
 
-    public List<Company> getAllCompanies() {
-        return companyRepository.findAll();
+    @Transactional(readOnly = true)
+    public CursorPage<CompanySummary> getCompanies(Long cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<CompanySummary> rows = companyRepository.findSummariesAfter(
+                cursor == null ? 0L : cursor, PageRequest.ofSize(pageSize + 1));
+        return CursorPage.of(rows, pageSize, CompanySummary::getId);
     }
 
     public Company verifyCompany(Long companyId) {
         Company company = companyRepository.findById(companyId)
                 .orElseThrow(() -> new RuntimeException("Company not found"));
 
+        platformStatsService.companyVerificationChanged(company.isVerified(), true);
         company.setVerified(true);
         company.setVerifiedAt(LocalDateTime.now());
 
@@ -71,27 +85,14 @@ public class AdminService {
     }
 
     // DASHBOARD STATS
+    // served from the in-memory aggregate, see PlatformStatsService
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getPlatformStats() {
-        Map<String, Object> stats = new HashMap<>();
-
-        stats.put("totalUsers", userRepository.count());
-        stats.put("totalFarmers", farmerRepository.count());
-        stats.put("totalCompanies", companyRepository.count());
-
-        stats.put("verifiedFarmers",
-                farmerRepository.countByVerified(true));
-
-        stats.put("verifiedCompanies",
-                companyRepository.countByVerified(true));
-
-        stats.put("totalCreditsConsumed",
-                companyRepository.findAll()
-                        .stream()
-                        .mapToDouble(Company::getTotalCreditsPurchased)
-                        .sum()
-        );
+        return platformStatsService.snapshot();
+    }
 
-        return stats;
+    public Map<String, Object> reconcilePlatformStats() {
+        return platformStatsService.reconcile();
     }
 }
@@ -0,0 +1,154 @@
+package rs.example.carbon_traders.admin.service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import rs.example.carbon_traders.common.transaction.AfterCommit;
+import rs.example.carbon_traders.company.repository.CompanyRepository;
+import rs.example.carbon_traders.farmer.repository.FarmerRepository;
+import rs.example.carbon_traders.user.repository.UserRepository;
+
+/**
+ * Admin dashboard numbers kept in memory and updated as users register, get verified
+ * and buy credits, so reading them costs nothing. Updates are applied after the
+ * surrounding transaction commits. A scheduled reconciliation recomputes everything
+ * from the tables, logs any drift and resets the counters to the DB values.
+ */
+@Slf4j
+@Service
+public class PlatformStatsService {
+
+    private final UserRepository userRepository;
+    private final FarmerRepository farmerRepository;
+    private final CompanyRepository companyRepository;
+
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong totalFarmers = new AtomicLong();
+    private final AtomicLong totalCompanies = new AtomicLong();
+    private final AtomicLong verifiedFarmers = new AtomicLong();
+    private final AtomicLong verifiedCompanies = new AtomicLong();
+    private final DoubleAdder totalCreditsConsumed = new DoubleAdder();
+
+    private volatile LocalDateTime lastReconciledAt;
+    private volatile Map<String, Object> lastDrift = Map.of();
+
+    public PlatformStatsService(UserRepository userRepository,
+                                FarmerRepository farmerRepository,
+                                CompanyRepository companyRepository) {
+        this.userRepository = userRepository;
+        this.farmerRepository = farmerRepository;
+        this.companyRepository = companyRepository;
+    }
+
+    // read
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+
+        stats.put("totalUsers", totalUsers.get());
+        stats.put("totalFarmers", totalFarmers.get());
+        stats.put("totalCompanies", totalCompanies.get());
+        stats.put("verifiedFarmers", verifiedFarmers.get());
+        stats.put("verifiedCompanies", verifiedCompanies.get());
+        stats.put("totalCreditsConsumed", totalCreditsConsumed.sum());
+        stats.put("lastReconciledAt", lastReconciledAt);
+
+        return stats;
+    }
+
+    public Map<String, Object> getLastDrift() {
+        return lastDrift;
+    }
+
+    // events
+
+    public void userRegistered() {
+        AfterCommit.run(totalUsers::incrementAndGet);
+    }
+
+    public void farmerRegistered() {
+        AfterCommit.run(totalFarmers::incrementAndGet);
+    }
+
+    public void companyRegistered() {
+        AfterCommit.run(totalCompanies::incrementAndGet);
+    }
+
+    // pass the flag before and after so repeated verify/reject calls do not double count
+    public void farmerVerificationChanged(boolean wasVerified, boolean verified) {
+        if (wasVerified != verified) {
+            AfterCommit.run(() -> verifiedFarmers.addAndGet(verified ? 1 : -1));
+        }
+    }
+
+    public void companyVerificationChanged(boolean wasVerified, boolean verified) {
+        if (wasVerified != verified) {
+            AfterCommit.run(() -> verifiedCompanies.addAndGet(verified ? 1 : -1));
+        }
+    }
+
+    public void creditsPurchased(double credits) {
+        AfterCommit.run(() -> totalCreditsConsumed.add(credits));
+    }
+
+    // reconciliation
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    // updates racing with the recount may be off by one until the next run
+    @Scheduled(fixedDelayString = "${admin.stats.reconcile-interval-ms:300000}",
+            initialDelayString = "${admin.stats.reconcile-interval-ms:300000}")
+    public synchronized Map<String, Object> reconcile() {
+
+        long users = userRepository.count();
+        long farmers = farmerRepository.count();
+        long companies = companyRepository.count();
+        long farmersVerified = farmerRepository.countByVerified(true);
+        long companiesVerified = companyRepository.countByVerified(true);
+        double creditsConsumed = companyRepository.sumTotalCreditsPurchased();
+
+        Map<String, Object> drift = new LinkedHashMap<>();
+        drift(drift, "totalUsers", totalUsers, users);
+        drift(drift, "totalFarmers", totalFarmers, farmers);
+        drift(drift, "totalCompanies", totalCompanies, companies);
+        drift(drift, "verifiedFarmers", verifiedFarmers, farmersVerified);
+        drift(drift, "verifiedCompanies", verifiedCompanies, companiesVerified);
+
+        double consumedDelta = creditsConsumed - totalCreditsConsumed.sum();
+        if (Math.abs(consumedDelta) > 1e-6) {
+            drift.put("totalCreditsConsumed", consumedDelta);
+        }
+        totalCreditsConsumed.reset();
+        totalCreditsConsumed.add(creditsConsumed);
+
+        // the first load always "drifts" from zero, only report later runs
+        if (lastReconciledAt != null && !drift.isEmpty()) {
+            log.warn("Platform stats drifted from the tables, corrected by: {}", drift);
+        }
+
+        lastReconciledAt = LocalDateTime.now();
+        lastDrift = drift;
+        return drift;
+    }
+
+    // helpers
+
+    private void drift(Map<String, Object> drift, String name, AtomicLong counter, long actual) {
+        long delta = actual - counter.getAndSet(actual);
+        if (delta != 0) {
+            drift.put(name, delta);
+        }
+    }
+}
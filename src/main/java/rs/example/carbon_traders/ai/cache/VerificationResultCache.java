@@ -0,0 +1,148 @@
+package rs.example.carbon_traders.ai.cache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import rs.example.carbon_traders.common.util.HashUtil;
+
+/**
+ * Verification results keyed by image hash, crop type and model version, so a re-upload
+ * of the same photo skips inference and a model upgrade invalidates everything. Memory
+ * tier is a bounded LRU; when ai.cache.disk-dir is set, results are also written there
+ * (one small file per key) and survive restarts.
+ *
+ * Metrics: ai.cache.hits, ai.cache.misses, ai.cache.hit.ratio and ai.cache.saved
+ * (inference seconds not spent thanks to hits).
+ */
+@Slf4j
+@Component
+public class VerificationResultCache {
+
+    private final Map<String, Entry> memory;
+    private final Path diskDir;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter saved;
+
+    public VerificationResultCache(MeterRegistry meterRegistry,
+                                   @Value("${ai.cache.max-entries:10000}") int maxEntries,
+                                   @Value("${ai.cache.disk-dir:}") String diskDir) {
+
+        // access-ordered LinkedHashMap evicts the least recently used entry
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.diskDir = diskDir.isBlank() ? null : Paths.get(diskDir);
+
+        this.hits = meterRegistry.counter("ai.cache.hits");
+        this.misses = meterRegistry.counter("ai.cache.misses");
+        this.saved = Counter.builder("ai.cache.saved")
+                .baseUnit("seconds")
+                .description("inference time avoided by cache hits")
+                .register(meterRegistry);
+        Gauge.builder("ai.cache.hit.ratio", this, VerificationResultCache::hitRatio).register(meterRegistry);
+    }
+
+    public static String key(String imageSha256, String cropType, String model) {
+        return imageSha256 + "|" + cropType.trim().toLowerCase() + "|" + model;
+    }
+
+    public String get(String key) {
+        Entry entry;
+        synchronized (memory) {
+            entry = memory.get(key);
+        }
+        if (entry == null && diskDir != null) {
+            entry = readDisk(key);
+            if (entry != null) {
+                synchronized (memory) {
+                    memory.put(key, entry);
+                }
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        saved.increment(entry.inferenceNanos / (double) TimeUnit.SECONDS.toNanos(1));
+        return entry.result;
+    }
+
+    public void put(String key, String result, long inferenceNanos) {
+        Entry entry = new Entry(result, inferenceNanos);
+        synchronized (memory) {
+            memory.put(key, entry);
+        }
+        if (diskDir != null) {
+            writeDisk(key, entry);
+        }
+    }
+
+    public int size() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    // disk tier
+
+    private Entry readDisk(String key) {
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            String[] lines = Files.readString(file, StandardCharsets.UTF_8).split("\n", 2);
+            return new Entry(lines[1], Long.parseLong(lines[0]));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unreadable AI cache file {}", file, e);
+            return null;
+        }
+    }
+
+    // write to a temp file and rename, so a reader never sees half a file
+    private void writeDisk(String key, Entry entry) {
+        Path file = fileFor(key);
+        try {
+            Files.createDirectories(diskDir);
+            Path tmp = Files.createTempFile(diskDir, "entry", ".tmp");
+            Files.writeString(tmp, entry.inferenceNanos + "\n" + entry.result, StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write AI cache file {}", file, e);
+        }
+    }
+
+    // key parts are hash|crop|model; hash the whole key so crop/model text never reaches the path
+    private Path fileFor(String key) {
+        return diskDir.resolve(HashUtil.sha256Hex(key.getBytes(StandardCharsets.UTF_8)) + ".result");
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    private record Entry(String result, long inferenceNanos) {
+    }
+}
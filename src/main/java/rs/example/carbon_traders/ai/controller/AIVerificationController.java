@@ -1,10 +1,21 @@
 package rs.example.carbon_traders.ai.controller;
 
+import java.security.Principal;
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import rs.example.carbon_traders.ai.dto.SavedImage;
+import rs.example.carbon_traders.ai.entity.VerificationJob;
 import rs.example.carbon_traders.ai.service.AIVerificationService;
+import rs.example.carbon_traders.ai.service.VerificationJobService;
 import rs.example.carbon_traders.common.response.ApiResponse;
 
 @RestController
@@ -12,9 +23,12 @@ import rs.example.carbon_traders.common.response.ApiResponse;
 public class AIVerificationController {
 
     private final AIVerificationService aiVerificationService;
+    private final VerificationJobService verificationJobService;
 
-    public AIVerificationController(AIVerificationService aiVerificationService) {
+    public AIVerificationController(AIVerificationService aiVerificationService,
+                                    VerificationJobService verificationJobService) {
         this.aiVerificationService = aiVerificationService;
+        this.verificationJobService = verificationJobService;
     }
 
     @PostMapping("/verify-crop")
@@ -28,5 +42,54 @@ public class AIVerificationController {
                 ApiResponse.success("AI verification completed", result)
         );
     }
-}
 
+    // many images from one farm visit of the calling farmer, results stream back as
+    // NDJSON lines as they finish
+    @PostMapping("/verify-crop/batch")
+    public ResponseEntity<StreamingResponseBody> verifyCropBatch(
+            @RequestParam List<MultipartFile> images,
+            @RequestParam String cropType,
+            Principal principal) {
+
+        List<SavedImage> saved = aiVerificationService.saveBatch(images, principal.getName());
+
+        StreamingResponseBody body = out -> aiVerificationService.streamBatch(saved, cropType, out);
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType("application", "x-ndjson"))
+                .body(body);
+    }
+
+    // async mode: returns the queued job at once, poll or subscribe for the result
+    // the lane comes from the caller's own farmer profile, not from the request
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse<VerificationJob>> submitJob(
+            @RequestParam MultipartFile image,
+            @RequestParam String cropType,
+            Principal principal) {
+
+        VerificationJob job = verificationJobService.submit(image, cropType, principal.getName());
+
+        return ResponseEntity.accepted().body(
+                ApiResponse.success("AI verification queued", job)
+        );
+    }
+
+    // submitter or admin only
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ApiResponse<VerificationJob>> getJob(@PathVariable Long id,
+                                                               HttpServletRequest request,
+                                                               Principal principal) {
+        VerificationJob job = verificationJobService.getJob(id, principal.getName(), request.isUserInRole("ADMIN"));
+        return ResponseEntity.ok(
+                ApiResponse.success("AI verification job", job)
+        );
+    }
+
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJob(@PathVariable Long id,
+                                HttpServletRequest request,
+                                Principal principal) {
+        return verificationJobService.subscribe(id, principal.getName(), request.isUserInRole("ADMIN"));
+    }
+}
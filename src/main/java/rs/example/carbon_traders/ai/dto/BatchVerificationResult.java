@@ -0,0 +1,16 @@
+package rs.example.carbon_traders.ai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// one NDJSON line of a batch response, index is the image's position in the upload
+@Getter
+@AllArgsConstructor
+public class BatchVerificationResult {
+
+    private final int index;
+    private final String fileName;
+    private final String result;
+    private final String error;
+    private final boolean cached;
+}
@@ -0,0 +1,14 @@
+package rs.example.carbon_traders.ai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// stored upload: a readable path plus the SHA-256 of its bytes, computed while it was written
+@Getter
+@AllArgsConstructor
+public class SavedImage {
+
+    private final String path;
+    private final String sha256;
+    private final String originalName;
+}
@@ -0,0 +1,68 @@
+package rs.example.carbon_traders.ai.entity;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import rs.example.carbon_traders.ai.enums.JobStatus;
+import rs.example.carbon_traders.ai.enums.VerificationLane;
+
+@Entity
+@Table(name = "verification_jobs", indexes = {
+        @Index(name = "idx_verification_jobs_status", columnList = "status"),
+        @Index(name = "idx_verification_jobs_farmer", columnList = "farmerId, status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VerificationJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // farmer profile of the submitter, null when a non-farmer submitted
+    private Long farmerId;
+
+    // email of the user who submitted the job, the only one besides admins who may read it
+    @JsonIgnore
+    private String ownerEmail;
+
+    @Column(nullable = false)
+    private String cropType;
+
+    // saved upload, only the worker needs it
+    @JsonIgnore
+    @Column(nullable = false)
+    private String imagePath;
+
+    // SHA-256 of the image bytes, the result cache key
+    @JsonIgnore
+    private String imageHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private VerificationLane lane;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private JobStatus status;
+
+    // model output, e.g. VERIFIED:wheat:CONFIDENCE=0.91
+    private String result;
+
+    private String error;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+    }
+}
@@ -0,0 +1,8 @@
+package rs.example.carbon_traders.ai.enums;
+
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
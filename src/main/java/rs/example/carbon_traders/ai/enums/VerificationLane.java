@@ -0,0 +1,7 @@
+package rs.example.carbon_traders.ai.enums;
+
+// declaration order is priority order: first-time farmers are waiting to be onboarded
+public enum VerificationLane {
+    FIRST_TIME,
+    REVERIFICATION
+}
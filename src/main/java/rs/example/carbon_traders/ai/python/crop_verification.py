@@ -1,13 +1,47 @@
 import sys
+import json
 import random
 
-image_path = sys.argv[1]
-crop_type = sys.argv[2]
 
-# MOCK AI LOGIC (Replace with ML later)
-confidence = random.uniform(0.75, 0.98)
+def verify(image_path, crop_type):
+    # MOCK AI LOGIC (Replace with ML later)
+    confidence = random.uniform(0.75, 0.98)
 
-if confidence > 0.85:
-    print(f"VERIFIED:{crop_type}:CONFIDENCE={confidence:.2f}")
-else:
-    print(f"REJECTED:{crop_type}:CONFIDENCE={confidence:.2f}")
+    if confidence > 0.85:
+        return f"VERIFIED:{crop_type}:CONFIDENCE={confidence:.2f}"
+    return f"REJECTED:{crop_type}:CONFIDENCE={confidence:.2f}"
+
+
+def verify_batch(items):
+    # one call per batch so a real model can stack the images and run them together
+    return [verify(item["image"], item["crop"]) for item in items]
+
+
+def serve():
+    # worker mode: one JSON request per stdin line, one JSON reply per stdout line.
+    # the model is loaded once here, before the first request
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        reply = {"id": None}
+        try:
+            request = json.loads(line)
+            reply["id"] = request.get("id")
+            if request.get("op") == "ping":
+                reply["result"] = "PONG"
+            elif request.get("op") == "verify_batch":
+                reply["result"] = verify_batch(request["items"])
+            else:
+                reply["result"] = verify(request["image"], request["crop"])
+        except Exception as e:
+            reply["error"] = str(e)
+        sys.stdout.write(json.dumps(reply) + "\n")
+        sys.stdout.flush()
+
+
+if __name__ == "__main__":
+    if len(sys.argv) > 1 and sys.argv[1] == "--serve":
+        serve()
+    else:
+        print(verify(sys.argv[1], sys.argv[2]))
@@ -0,0 +1,19 @@
+package rs.example.carbon_traders.ai.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import rs.example.carbon_traders.ai.entity.VerificationJob;
+import rs.example.carbon_traders.ai.enums.JobStatus;
+
+@Repository
+public interface VerificationJobRepository extends JpaRepository<VerificationJob, Long> {
+
+    boolean existsByFarmerIdAndStatus(Long farmerId, JobStatus status);
+
+    // unfinished jobs, re-queued after a restart
+    List<VerificationJob> findByStatusInOrderByIdAsc(Collection<JobStatus> statuses);
+}
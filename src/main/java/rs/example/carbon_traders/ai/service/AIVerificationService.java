@@ -1,54 +1,232 @@
 package rs.example.carbon_traders.ai.service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.file.Path;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import rs.example.carbon_traders.ai.cache.VerificationResultCache;
+import rs.example.carbon_traders.ai.dto.BatchVerificationResult;
+import rs.example.carbon_traders.ai.dto.SavedImage;
+import rs.example.carbon_traders.ai.worker.InferenceWorkerPool;
+import rs.example.carbon_traders.common.storage.BlobRef;
 import rs.example.carbon_traders.common.util.FileUploadUtil;
+import rs.example.carbon_traders.farmer.repository.FarmerRepository;
 
 @Service
 public class AIVerificationService {
 
-    private static final String PYTHON_SCRIPT =
-            "src/main/java/rs/example/carbon_traders/ai/python/crop_verification.py";
+    private final InferenceWorkerPool workerPool;
+    private final VerificationResultCache resultCache;
+    private final FileUploadUtil fileUploadUtil;
+    private final FarmerRepository farmerRepository;
+    private final ObjectMapper objectMapper;
+    private final String model;
+    private final int batchChunkSize;
+    private final int batchMaxImages;
+
+    // one chunk per worker at a time
+    private final ExecutorService batchExecutor;
+
+    public AIVerificationService(InferenceWorkerPool workerPool,
+                                 VerificationResultCache resultCache,
+                                 FileUploadUtil fileUploadUtil,
+                                 FarmerRepository farmerRepository,
+                                 ObjectMapper objectMapper,
+                                 @Value("${ai.verification.model:crop-verification-v1}") String model,
+                                 @Value("${ai.batch.chunk-size:8}") int batchChunkSize,
+                                 @Value("${ai.batch.max-images:100}") int batchMaxImages) {
+        this.workerPool = workerPool;
+        this.resultCache = resultCache;
+        this.fileUploadUtil = fileUploadUtil;
+        this.farmerRepository = farmerRepository;
+        this.objectMapper = objectMapper;
+        this.model = model;
+        this.batchChunkSize = batchChunkSize;
+        this.batchMaxImages = batchMaxImages;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.batchExecutor = Executors.newFixedThreadPool(workerPool.size(), runnable -> {
+            Thread thread = new Thread(runnable, "ai-batch-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        batchExecutor.shutdownNow();
+    }
 
     public String verifyCrop(MultipartFile image, String cropType) {
 
+        //Save image
+        SavedImage saved = saveImage(image);
+
         try {
-            //Save image
-            String imagePath = FileUploadUtil.saveFile(image, "ai-crop");
+            return verifyImage(saved.getPath(), saved.getSha256(), cropType);
+        } finally {
+            releaseImage(saved.getSha256());
+        }
+    }
 
-            //Run python script
-            ProcessBuilder processBuilder = new ProcessBuilder(
-                    "python",
-                    PYTHON_SCRIPT,
-                    imagePath,
-                    cropType
-            );
+    // the store hashes the upload while writing it; that digest is also the cache key
+    public SavedImage saveImage(MultipartFile image) {
+        BlobRef blob = fileUploadUtil.saveFile(image);
+        return new SavedImage(fileUploadUtil.pathOf(blob).toString(), blob.getDigest(), image.getOriginalFilename());
+    }
 
-            processBuilder.redirectErrorStream(true);
-            Process process = processBuilder.start();
+    // gives back the reference saveImage took, once the image is no longer needed
+    public void releaseImage(String sha256) {
+        if (sha256 != null) {
+            fileUploadUtil.deleteFile(sha256);
+        }
+    }
 
-            //Read output
-            BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()));
+    // image already on disk (async jobs save it on the request thread);
+    // a null hash skips the cache
+    public String verifyImage(String imagePath, String imageSha256, String cropType) {
 
-            String output;
-            StringBuilder result = new StringBuilder();
+        String key = imageSha256 == null
+                ? null
+                : VerificationResultCache.key(imageSha256, cropType, model);
 
-            while ((output = reader.readLine()) != null) {
-                result.append(output);
+        if (key != null) {
+            String cached = resultCache.get(key);
+            if (cached != null) {
+                return cached;
             }
+        }
 
-            process.waitFor();
-            return result.toString();
+        //Run on a warm python worker (bounded wait, per-call deadline)
+        long started = System.nanoTime();
+        String result = workerPool.verify(imagePath, cropType);
 
-        } catch (Exception e) {
-            throw new RuntimeException("AI verification failed");
+        if (key != null) {
+            resultCache.put(key, result, System.nanoTime() - started);
         }
+        return result;
+    }
+
+    //batch (one farm visit)
+
+    // save on the request thread: multipart parts are gone once the response streams.
+    // the batch belongs to the caller's own farmer profile
+    public List<SavedImage> saveBatch(List<MultipartFile> images, String farmerEmail) {
+
+        if (farmerRepository.findIdByUserEmail(farmerEmail).isEmpty()) {
+            throw new RuntimeException("Farmer profile not found");
+        }
+        if (images == null || images.isEmpty()) {
+            throw new RuntimeException("No images uploaded");
+        }
+        if (images.size() > batchMaxImages) {
+            throw new RuntimeException("At most " + batchMaxImages + " images per batch");
+        }
+
+        List<SavedImage> saved = new ArrayList<>(images.size());
+        try {
+            for (MultipartFile image : images) {
+                saved.add(saveImage(image));
+            }
+        } catch (RuntimeException e) {
+            saved.forEach(image -> releaseImage(image.getSha256()));
+            throw e;
+        }
+        return saved;
     }
-}
 
+    // writes one NDJSON line per image as soon as its result is known: cache hits first,
+    // then each chunk of misses as its worker answers. Chunks run on different workers
+    // in parallel, and every chunk is a single model call. The saved images are released
+    // when the stream ends, however it ends
+    public void streamBatch(List<SavedImage> images, String cropType, OutputStream out) throws IOException {
+        try {
+            writeBatch(images, cropType, out);
+        } finally {
+            images.forEach(image -> releaseImage(image.getSha256()));
+        }
+    }
+
+    private void writeBatch(List<SavedImage> images, String cropType, OutputStream out) throws IOException {
+
+        Consumer<BatchVerificationResult> emit = result -> {
+            synchronized (out) {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        List<Integer> misses = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            SavedImage image = images.get(i);
+            String cached = resultCache.get(VerificationResultCache.key(image.getSha256(), cropType, model));
+            if (cached != null) {
+                emit.accept(new BatchVerificationResult(i, image.getOriginalName(), cached, null, true));
+            } else {
+                misses.add(i);
+            }
+        }
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < misses.size(); from += batchChunkSize) {
+            List<Integer> chunk = misses.subList(from, Math.min(from + batchChunkSize, misses.size()));
+            chunks.add(CompletableFuture.runAsync(() -> runChunk(images, chunk, cropType, emit), batchExecutor));
+        }
+
+        try {
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                // client went away mid-stream
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void runChunk(List<SavedImage> images,
+                          List<Integer> chunk,
+                          String cropType,
+                          Consumer<BatchVerificationResult> emit) {
+
+        List<String> paths = new ArrayList<>(chunk.size());
+        chunk.forEach(i -> paths.add(images.get(i).getPath()));
+
+        List<String> results;
+        long started = System.nanoTime();
+        try {
+            results = workerPool.verifyBatch(paths, cropType);
+        } catch (RuntimeException e) {
+            chunk.forEach(i -> emit.accept(new BatchVerificationResult(
+                    i, images.get(i).getOriginalName(), null, e.getMessage(), false)));
+            return;
+        }
+
+        // cache per image, charging each its share of the batch time
+        long perImageNanos = (System.nanoTime() - started) / chunk.size();
+        for (int k = 0; k < chunk.size(); k++) {
+            SavedImage image = images.get(chunk.get(k));
+            resultCache.put(VerificationResultCache.key(image.getSha256(), cropType, model), results.get(k), perImageNanos);
+            emit.accept(new BatchVerificationResult(chunk.get(k), image.getOriginalName(), results.get(k), null, false));
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package rs.example.carbon_traders.ai.service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import rs.example.carbon_traders.ai.dto.SavedImage;
+import rs.example.carbon_traders.ai.entity.VerificationJob;
+import rs.example.carbon_traders.ai.enums.JobStatus;
+import rs.example.carbon_traders.ai.enums.VerificationLane;
+import rs.example.carbon_traders.ai.repository.VerificationJobRepository;
+import rs.example.carbon_traders.common.exception.ServiceBusyException;
+import rs.example.carbon_traders.farmer.repository.FarmerRepository;
+
+/**
+ * Submit-and-poll crop verification. The upload is saved and a job row is returned at
+ * once; a small fixed executor drains jobs in lane order (first-time farmers before
+ * re-verifications, FIFO within a lane). At most ai.jobs.capacity jobs wait at a time,
+ * beyond that submit fails with ServiceBusyException. Unfinished jobs survive a restart
+ * because the row, not the in-memory queue, is the source of truth.
+ *
+ * The lane comes from the submitter's own farmer profile, and a job is visible only to
+ * the user who submitted it and to admins.
+ */
+@Slf4j
+@Service
+public class VerificationJobService {
+
+    private final VerificationJobRepository jobRepository;
+    private final AIVerificationService aiVerificationService;
+    private final FarmerRepository farmerRepository;
+    private final int capacity;
+    private final long sseTimeoutMs;
+    private final long busyRetryMs;
+
+    private final ThreadPoolExecutor executor;
+    // puts jobs back on the executor after a delay when every worker was busy
+    private final ScheduledExecutorService retryScheduler;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final Map<Long, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public VerificationJobService(VerificationJobRepository jobRepository,
+                                  AIVerificationService aiVerificationService,
+                                  FarmerRepository farmerRepository,
+                                  @Value("${ai.jobs.threads:4}") int threads,
+                                  @Value("${ai.jobs.capacity:1000}") int capacity,
+                                  @Value("${ai.jobs.sse-timeout-ms:120000}") long sseTimeoutMs,
+                                  @Value("${ai.jobs.busy-retry-ms:1000}") long busyRetryMs) {
+        this.jobRepository = jobRepository;
+        this.aiVerificationService = aiVerificationService;
+        this.farmerRepository = farmerRepository;
+        this.capacity = capacity;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.busyRetryMs = busyRetryMs;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "ai-job-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-job-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // pick up jobs that were queued or running when the last instance stopped
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        List<VerificationJob> unfinished =
+                jobRepository.findByStatusInOrderByIdAsc(List.of(JobStatus.QUEUED, JobStatus.RUNNING));
+        for (VerificationJob job : unfinished) {
+            job.setStatus(JobStatus.QUEUED);
+            jobRepository.save(job);
+            backlog.incrementAndGet();
+            enqueue(job);
+        }
+        if (!unfinished.isEmpty()) {
+            log.info("Resumed {} verification jobs", unfinished.size());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        // rows stay QUEUED/RUNNING and are resumed on the next start
+        retryScheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    public VerificationJob submit(MultipartFile image, String cropType, String ownerEmail) {
+
+        if (backlog.incrementAndGet() > capacity) {
+            backlog.decrementAndGet();
+            throw new ServiceBusyException("Verification queue is full, try again later");
+        }
+
+        SavedImage saved = null;
+        try {
+            saved = aiVerificationService.saveImage(image);
+
+            Long farmerId = farmerRepository.findIdByUserEmail(ownerEmail).orElse(null);
+            VerificationLane lane = farmerId != null
+                    && jobRepository.existsByFarmerIdAndStatus(farmerId, JobStatus.COMPLETED)
+                    ? VerificationLane.REVERIFICATION
+                    : VerificationLane.FIRST_TIME;
+
+            VerificationJob job = jobRepository.save(VerificationJob.builder()
+                    .farmerId(farmerId)
+                    .ownerEmail(ownerEmail)
+                    .cropType(cropType)
+                    .imagePath(saved.getPath())
+                    .imageHash(saved.getSha256())
+                    .lane(lane)
+                    .status(JobStatus.QUEUED)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+
+            enqueue(job);
+            return job;
+
+        } catch (RuntimeException e) {
+            backlog.decrementAndGet();
+            if (saved != null) {
+                aiVerificationService.releaseImage(saved.getSha256());
+            }
+            throw e;
+        }
+    }
+
+    public VerificationJob getJob(Long jobId, String email, boolean admin) {
+        VerificationJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Verification job not found"));
+        // same answer as a missing job, so ids of other users' jobs are not confirmed
+        if (!admin && !email.equals(job.getOwnerEmail())) {
+            throw new RuntimeException("Verification job not found");
+        }
+        return job;
+    }
+
+    // server-sent events: one "status" event now, one "result" event when the job ends
+    public SseEmitter subscribe(Long jobId, String email, boolean admin) {
+        VerificationJob job = getJob(jobId, email, admin);
+
+        Subscriber subscriber = new Subscriber(new SseEmitter(sseTimeoutMs));
+        subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>()).add(subscriber);
+        subscriber.emitter.onCompletion(() -> unsubscribe(jobId, subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(jobId, subscriber));
+        subscriber.emitter.onError(e -> unsubscribe(jobId, subscriber));
+
+        subscriber.status(job);
+
+        // the job may have finished before the subscriber was registered
+        VerificationJob current = jobRepository.findById(jobId).orElse(job);
+        if (current.isFinished()) {
+            publish(current);
+        }
+        return subscriber.emitter;
+    }
+
+    public int backlog() {
+        return backlog.get();
+    }
+
+    // executor
+
+    private void enqueue(VerificationJob job) {
+        executor.execute(new QueuedJob(job.getId(), job.getLane(), sequence.incrementAndGet()));
+    }
+
+    private void run(QueuedJob queued) {
+        VerificationJob job = jobRepository.findById(queued.jobId).orElse(null);
+        if (job == null) {
+            backlog.decrementAndGet();
+            return;
+        }
+
+        job.setStatus(JobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        jobRepository.save(job);
+
+        try {
+            job.setResult(aiVerificationService.verifyImage(
+                    job.getImagePath(), job.getImageHash(), job.getCropType()));
+            job.setStatus(JobStatus.COMPLETED);
+
+        } catch (ServiceBusyException e) {
+            // synchronous callers hold every worker; give them time, then take the job's
+            // old place in its lane again
+            job.setStatus(JobStatus.QUEUED);
+            jobRepository.save(job);
+            retryScheduler.schedule(() -> executor.execute(queued), busyRetryMs, TimeUnit.MILLISECONDS);
+            return;
+
+        } catch (RuntimeException e) {
+            log.warn("Verification job {} failed", job.getId(), e);
+            job.setStatus(JobStatus.FAILED);
+            job.setError(e.getMessage());
+        }
+
+        job.setCompletedAt(LocalDateTime.now());
+        jobRepository.save(job);
+        backlog.decrementAndGet();
+        // the result is stored, the image is not needed any more
+        aiVerificationService.releaseImage(job.getImageHash());
+        publish(job);
+    }
+
+    private void publish(VerificationJob job) {
+        List<Subscriber> waiting = subscribers.remove(job.getId());
+        if (waiting == null) {
+            return;
+        }
+        waiting.forEach(subscriber -> subscriber.result(job));
+    }
+
+    private void unsubscribe(Long jobId, Subscriber subscriber) {
+        subscribers.computeIfPresent(jobId, (id, waiting) -> {
+            waiting.remove(subscriber);
+            return waiting.isEmpty() ? null : waiting;
+        });
+    }
+
+    // serializes the sends to one emitter: a "status" racing a "result" either goes
+    // first or is dropped, and nothing is sent once the emitter is complete
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private boolean done;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void status(VerificationJob job) {
+            if (done) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("status").data(job));
+            } catch (IOException | IllegalStateException e) {
+                done = true;
+                emitter.completeWithError(e);
+            }
+        }
+
+        synchronized void result(VerificationJob job) {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                emitter.send(SseEmitter.event().name("result").data(job));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private final class QueuedJob implements Runnable, Comparable<QueuedJob> {
+
+        private final Long jobId;
+        private final VerificationLane lane;
+        private final long sequence;
+
+        private QueuedJob(Long jobId, VerificationLane lane, long sequence) {
+            this.jobId = jobId;
+            this.lane = lane;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            VerificationJobService.this.run(this);
+        }
+
+        @Override
+        public int compareTo(QueuedJob other) {
+            int byLane = lane.compareTo(other.lane);
+            return byLane != 0 ? byLane : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package rs.example.carbon_traders.ai.worker;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import rs.example.carbon_traders.common.exception.ServiceBusyException;
+
+/**
+ * Fixed pool of long-lived Python verification workers. A caller borrows a slot for
+ * one call; when every slot is busy it waits up to acquire-timeout-ms and then gets a
+ * ServiceBusyException (503) instead of queuing without bound. A slot whose process
+ * crashed or missed a deadline is restarted the next time it is borrowed, and idle
+ * slots are pinged on a schedule.
+ *
+ * Metrics: ai.workers.idle (gauge), ai.workers.restarts and ai.workers.rejected (counters).
+ */
+@Slf4j
+@Component
+public class InferenceWorkerPool {
+
+    private final ObjectMapper objectMapper;
+    private final List<String> command;
+    private final long callTimeoutMs;
+    private final long acquireTimeoutMs;
+    private final long pingTimeoutMs;
+
+    private final PythonWorker[] workers;
+    private final BlockingQueue<Integer> idle;
+    private final Counter restarts;
+    private final Counter rejected;
+
+    public InferenceWorkerPool(ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${ai.worker.size:4}") int size,
+                               @Value("${ai.worker.python:python}") String python,
+                               @Value("${ai.worker.script:src/main/java/rs/example/carbon_traders/ai/python/crop_verification.py}")
+                               String script,
+                               @Value("${ai.worker.call-timeout-ms:30000}") long callTimeoutMs,
+                               @Value("${ai.worker.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+                               @Value("${ai.worker.ping-timeout-ms:2000}") long pingTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.command = List.of(python, script, "--serve");
+        this.callTimeoutMs = callTimeoutMs;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.pingTimeoutMs = pingTimeoutMs;
+
+        this.workers = new PythonWorker[size];
+        this.idle = new ArrayBlockingQueue<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            idle.add(slot);
+        }
+
+        Gauge.builder("ai.workers.idle", idle, BlockingQueue::size).register(meterRegistry);
+        this.restarts = meterRegistry.counter("ai.workers.restarts");
+        this.rejected = meterRegistry.counter("ai.workers.rejected");
+    }
+
+    // start every worker up front so the first uploads do not pay interpreter startup;
+    // a slot that fails here is retried when borrowed
+    @PostConstruct
+    public void start() {
+        for (int slot = 0; slot < workers.length; slot++) {
+            try {
+                workers[slot] = PythonWorker.start(name(slot), command, objectMapper);
+            } catch (IOException e) {
+                log.error("Could not start AI worker {}", name(slot), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (PythonWorker worker : workers) {
+            if (worker != null) {
+                worker.kill();
+            }
+        }
+    }
+
+    public String verify(String imagePath, String cropType) {
+        Integer slot = borrow();
+        try {
+            return live(slot).verify(imagePath, cropType, callTimeoutMs);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("AI verification timed out");
+        } finally {
+            idle.add(slot);
+        }
+    }
+
+    // a batch holds one worker for one model call
+    public List<String> verifyBatch(List<String> imagePaths, String cropType) {
+        Integer slot = borrow();
+        try {
+            return live(slot).verifyBatch(imagePaths, cropType, callTimeoutMs);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("AI batch verification timed out");
+        } finally {
+            idle.add(slot);
+        }
+    }
+
+    public int size() {
+        return workers.length;
+    }
+
+    // health check
+
+    // one idle slot at a time, so callers are never starved while the pool is checked
+    @Scheduled(fixedDelayString = "${ai.worker.health-interval-ms:30000}")
+    public void checkHealth() {
+        for (int i = 0; i < workers.length; i++) {
+            Integer slot = idle.poll();
+            if (slot == null) {
+                return;
+            }
+            try {
+                PythonWorker worker = workers[slot];
+                if (worker == null || !worker.ping(pingTimeoutMs)) {
+                    log.warn("AI worker {} failed its health check", name(slot));
+                    restart(slot);
+                }
+            } catch (RuntimeException e) {
+                log.error("AI worker {} could not be restarted", name(slot), e);
+            } finally {
+                idle.add(slot);
+            }
+        }
+    }
+
+    // helpers
+
+    private Integer borrow() {
+        try {
+            Integer slot = idle.poll(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+            if (slot == null) {
+                rejected.increment();
+                throw new ServiceBusyException("All AI workers are busy, try again shortly");
+            }
+            return slot;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("AI verification interrupted", e);
+        }
+    }
+
+    private PythonWorker live(int slot) {
+        PythonWorker worker = workers[slot];
+        if (worker == null || !worker.isAlive()) {
+            worker = restart(slot);
+        }
+        return worker;
+    }
+
+    // only the thread holding the slot touches workers[slot]
+    private PythonWorker restart(int slot) {
+        if (workers[slot] != null) {
+            workers[slot].kill();
+        }
+        try {
+            workers[slot] = PythonWorker.start(name(slot), command, objectMapper);
+            restarts.increment();
+            return workers[slot];
+        } catch (IOException e) {
+            workers[slot] = null;
+            throw new RuntimeException("AI worker could not be started", e);
+        }
+    }
+
+    private String name(int slot) {
+        return "ai-worker-" + slot;
+    }
+}
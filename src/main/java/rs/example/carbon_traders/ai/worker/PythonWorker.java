@@ -0,0 +1,180 @@
+package rs.example.carbon_traders.ai.worker;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One long-lived {@code crop_verification.py --serve} process. Requests and replies are
+ * single-line JSON frames on stdin/stdout, matched by id; a reader thread completes the
+ * waiting call. stderr is inherited so Python tracebacks land in the application log.
+ */
+@Slf4j
+class PythonWorker {
+
+    private final String name;
+    private final Process process;
+    private final BufferedWriter stdin;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private volatile boolean alive = true;
+
+    private PythonWorker(String name, Process process, ObjectMapper objectMapper) {
+        this.name = name;
+        this.process = process;
+        this.objectMapper = objectMapper;
+        this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+        Thread reader = new Thread(this::readLoop, name + "-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    static PythonWorker start(String name, List<String> command, ObjectMapper objectMapper) throws IOException {
+        Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        log.info("Started AI worker {} (pid {})", name, process.pid());
+        return new PythonWorker(name, process, objectMapper);
+    }
+
+    String verify(String imagePath, String cropType, long timeoutMs) throws TimeoutException {
+        return call(Map.of("op", "verify", "image", imagePath, "crop", cropType), timeoutMs).asText();
+    }
+
+    // one frame for the whole batch, results come back in request order
+    List<String> verifyBatch(List<String> imagePaths, String cropType, long timeoutMs) throws TimeoutException {
+        List<Map<String, String>> items = new ArrayList<>(imagePaths.size());
+        imagePaths.forEach(path -> items.add(Map.of("image", path, "crop", cropType)));
+
+        JsonNode results = call(Map.of("op", "verify_batch", "items", items), timeoutMs);
+        if (!results.isArray() || results.size() != imagePaths.size()) {
+            throw new RuntimeException("AI worker " + name + " returned a malformed batch reply");
+        }
+
+        List<String> verdicts = new ArrayList<>(results.size());
+        results.forEach(result -> verdicts.add(result.asText()));
+        return verdicts;
+    }
+
+    boolean ping(long timeoutMs) {
+        try {
+            return "PONG".equals(call(Map.of("op", "ping"), timeoutMs).asText());
+        } catch (TimeoutException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    boolean isAlive() {
+        return alive && process.isAlive();
+    }
+
+    // a worker that missed its deadline may still be busy on the old frame, so it is
+    // never reused: kill it and let the pool start a fresh one
+    void kill() {
+        alive = false;
+        process.destroyForcibly();
+        failPending("AI worker " + name + " stopped");
+    }
+
+    // caller
+
+    private JsonNode call(Map<String, Object> frame, long timeoutMs) throws TimeoutException {
+        if (!isAlive()) {
+            throw new RuntimeException("AI worker " + name + " is not running");
+        }
+
+        long id = ids.incrementAndGet();
+        CompletableFuture<JsonNode> reply = new CompletableFuture<>();
+        pending.put(id, reply);
+
+        try {
+            Map<String, Object> request = new HashMap<>(frame);
+            request.put("id", id);
+            synchronized (stdin) {
+                stdin.write(objectMapper.writeValueAsString(request));
+                stdin.newLine();
+                stdin.flush();
+            }
+            return reply.get(timeoutMs, TimeUnit.MILLISECONDS);
+
+        } catch (TimeoutException e) {
+            log.warn("AI worker {} missed its {} ms deadline, killing it", name, timeoutMs);
+            kill();
+            throw e;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            kill();
+            throw new RuntimeException("AI verification interrupted", e);
+        } catch (IOException e) {
+            kill();
+            throw new RuntimeException("AI worker " + name + " is not reachable", e);
+        } finally {
+            pending.remove(id);
+        }
+    }
+
+    // reader thread
+
+    private void readLoop() {
+        try (BufferedReader stdout = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+
+            String line;
+            while ((line = stdout.readLine()) != null) {
+                JsonNode reply;
+                try {
+                    reply = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    // stray print from the model, not a frame
+                    log.debug("AI worker {}: {}", name, line);
+                    continue;
+                }
+
+                CompletableFuture<JsonNode> waiting = pending.remove(reply.path("id").asLong());
+                if (waiting == null) {
+                    continue;
+                }
+                if (reply.hasNonNull("error")) {
+                    waiting.completeExceptionally(new RuntimeException(reply.get("error").asText()));
+                } else {
+                    waiting.complete(reply.path("result"));
+                }
+            }
+        } catch (IOException e) {
+            log.debug("AI worker {} output closed", name, e);
+        }
+
+        if (alive) {
+            log.warn("AI worker {} exited with code {}", name, process.isAlive() ? "?" : process.exitValue());
+        }
+        alive = false;
+        failPending("AI worker " + name + " exited");
+    }
+
+    private void failPending(String reason) {
+        pending.values().forEach(reply -> reply.completeExceptionally(new RuntimeException(reason)));
+        pending.clear();
+    }
+}
@@ -3,11 +3,12 @@ package rs.example.carbon_traders.auth.controller;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import rs.example.carbon_traders.auth.dto.AuthResult;
 import rs.example.carbon_traders.auth.dto.JwtResponse;
 import rs.example.carbon_traders.auth.dto.LoginRequest;
+import rs.example.carbon_traders.auth.dto.RefreshRequest;
 import rs.example.carbon_traders.auth.dto.RegisterRequest;
 import rs.example.carbon_traders.auth.service.AuthService;
-import rs.example.carbon_traders.user.entity.User;
 import rs.example.carbon_traders.user.service.UserService;
 
 @RestController
@@ -29,20 +30,39 @@ public class AuthController {
     public ResponseEntity<JwtResponse> login(
             @RequestBody LoginRequest request) {
 
-        String token = authService.login(
+        AuthResult result = authService.login(
                 request.getEmail(),
                 request.getPassword()
         );
 
-        User user = userService
-                .findByEmail(request.getEmail())
-                .orElseThrow();
+        return ResponseEntity.ok(toResponse(result));
+    }
+
+    // REFRESH: rotates the refresh token and issues a new access token
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refresh(
+            @RequestBody RefreshRequest request) {
 
         return ResponseEntity.ok(
-                new JwtResponse(token, user.getRole().name())
+                toResponse(authService.refresh(request.getRefreshToken()))
         );
     }
 
+    // LOGOUT: revokes the refresh token family and the bearer access token. Both are
+    // optional so clients that only send one of them keep working
+    @PostMapping("/logout")
+    public ResponseEntity<String> logout(
+            @RequestBody(required = false) RefreshRequest request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ")
+                ? authHeader.substring(7)
+                : null;
+        authService.logout(request == null ? null : request.getRefreshToken(), accessToken);
+
+        return ResponseEntity.ok("Logged out");
+    }
+
     //  REGISTER
     @PostMapping("/register")
     public ResponseEntity<String> register(
@@ -52,6 +72,9 @@ public class AuthController {
 
         return ResponseEntity.ok("User registered successfully");
     }
-}
-
 
+    private JwtResponse toResponse(AuthResult result) {
+        return new JwtResponse(result.token(), result.role(), result.userId(),
+                result.refreshToken(), result.expiresInMs() / 1000);
+    }
+}
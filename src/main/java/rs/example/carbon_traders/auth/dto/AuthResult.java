@@ -0,0 +1,6 @@
+package rs.example.carbon_traders.auth.dto;
+
+// outcome of a successful login or refresh: a short-lived access token and its refresh token
+public record AuthResult(Long userId, String email, String role, String token, String refreshToken,
+                         long expiresInMs) {
+}
@@ -4,12 +4,26 @@ public class JwtResponse {
 
     private String token;
     private String role;
+    private Long userId;
+    private String refreshToken;
+    private long expiresIn;     // access token lifetime in seconds
 
     public JwtResponse(String token, String role) {
         this.token = token;
         this.role = role;
     }
 
+    public JwtResponse(String token, String role, Long userId) {
+        this(token, role);
+        this.userId = userId;
+    }
+
+    public JwtResponse(String token, String role, Long userId, String refreshToken, long expiresIn) {
+        this(token, role, userId);
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+    }
+
     public String getToken() {
         return token;
     }
@@ -17,5 +31,16 @@ public class JwtResponse {
     public String getRole() {
         return role;
     }
-}
 
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public long getExpiresIn() {
+        return expiresIn;
+    }
+}
@@ -0,0 +1,13 @@
+package rs.example.carbon_traders.auth.dto;
+
+public class RefreshRequest {
+
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -1,29 +1,72 @@
 package rs.example.carbon_traders.auth.service;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.stereotype.Service;
 
-import rs.example.carbon_traders.security.JwtUtil;
-import rs.example.carbon_traders.user.entity.User;
+import rs.example.carbon_traders.auth.dto.AuthResult;
+import rs.example.carbon_traders.auth.service.RefreshTokenService.Rotated;
+import rs.example.carbon_traders.user.service.UserPrincipalCache.UserPrincipal;
 import rs.example.carbon_traders.user.service.UserService;
+import rs.example.carbon_traders.util.JwtUtil;
 
 @Service
 public class AuthService {
 
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList revocationList;
 
-    public AuthService(UserService userService, JwtUtil jwtUtil) {
+    public AuthService(UserService userService,
+                       JwtUtil jwtUtil,
+                       RefreshTokenService refreshTokenService,
+                       TokenRevocationList revocationList) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
+        this.revocationList = revocationList;
     }
 
-    public String login(String email, String password) {
+    public AuthResult login(String email, String password) {
 
-        // 1. Validate user credentials
-        User user = userService.validateUser(email, password);
+        // 1. Validate user credentials (single lookup)
+        UserPrincipal user = userService.validateUser(email, password);
 
-        // 2. Generate JWT
-        return jwtUtil.generateToken(user);
+        // 2. Generate short-lived access token, plus a refresh token starting a new family
+        String token = jwtUtil.generateToken(user.email(), user.role());
+        String refreshToken = refreshTokenService.issue(user.id(), user.email());
+
+        return new AuthResult(user.id(), user.email(), user.role(), token, refreshToken,
+                jwtUtil.getAccessTokenTtlMs());
     }
-}
 
+    // spends the refresh token; revocation and account state are checked here, not per request
+    public AuthResult refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new RuntimeException("Refresh token is required");
+        }
+
+        Rotated rotated = refreshTokenService.rotate(refreshToken);
+        String token = jwtUtil.generateToken(rotated.email(), rotated.role());
+
+        return new AuthResult(rotated.userId(), rotated.email(), rotated.role(), token,
+                rotated.refreshToken(), jwtUtil.getAccessTokenTtlMs());
+    }
+
+    // ends the login the refresh token belongs to, and denies the presented access
+    // token until its exp so a copied one stops working right away
+    public void logout(String refreshToken, String accessToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+        if (accessToken != null && !accessToken.isBlank()) {
+            try {
+                Claims claims = jwtUtil.parseClaims(accessToken);
+                revocationList.revoke(claims.getId(), claims.getSubject(), claims.getExpiration().getTime());
+            } catch (JwtException | IllegalArgumentException e) {
+                // invalid or expired: nothing left to revoke
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package rs.example.carbon_traders.auth.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rs.example.carbon_traders.auth.entity.RefreshToken;
+import rs.example.carbon_traders.auth.repository.RefreshTokenRepository;
+import rs.example.carbon_traders.common.util.HashUtil;
+import rs.example.carbon_traders.user.entity.User;
+import rs.example.carbon_traders.user.repository.UserRepository;
+
+/**
+ * Opaque, single-use refresh tokens. This is the only place revocation and account
+ * state are checked: access tokens are short-lived and trusted on their claims alone,
+ * so disabling a user or logging out takes effect at the next refresh, at most one
+ * access-token-ttl-ms later.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${security.jwt.refresh-token-ttl-ms:1209600000}") long ttlMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = Duration.ofMillis(ttlMs);
+    }
+
+    // login: starts a new family
+    public String issue(Long userId, String email) {
+        return save(userId, email, UUID.randomUUID().toString(), LocalDateTime.now());
+    }
+
+    // spends the token and returns its successor together with the user's current state
+    public Rotated rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getRevokedAt() != null || !current.getExpiresAt().isAfter(now)) {
+            throw new RuntimeException("Refresh token expired or revoked");
+        }
+
+        // read the user, not the principal cache, so a role change or ban is seen at once
+        User user = userRepository.findById(current.getUserId()).orElse(null);
+        if (user == null || !user.isActive()) {
+            revokeFamily(current.getFamilyId());
+            throw new RuntimeException("User account is disabled");
+        }
+
+        String next = transactionTemplate.execute(status ->
+                refreshTokenRepository.markUsed(current.getId(), now) == 1
+                        ? save(user.getId(), user.getEmail(), current.getFamilyId(), now)
+                        : null);
+
+        // already spent: the token was copied, cut off every descendant of that login
+        if (next == null) {
+            revokeFamily(current.getFamilyId());
+            log.warn("Refresh token reuse for user {}, family {} revoked", user.getId(), current.getFamilyId());
+            throw new RuntimeException("Refresh token reuse detected, please log in again");
+        }
+
+        return new Rotated(user.getId(), user.getEmail(), user.getRole().name(), next);
+    }
+
+    // logout: unknown or already revoked tokens are ignored
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> revokeFamily(token.getFamilyId()));
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.refresh-purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    // helpers
+
+    private String save(Long userId, String email, String familyId, LocalDateTime now) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .userId(userId)
+                .email(email)
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build());
+        return rawToken;
+    }
+
+    private void revokeFamily(String familyId) {
+        transactionTemplate.executeWithoutResult(status ->
+                refreshTokenRepository.revokeFamily(familyId, LocalDateTime.now()));
+    }
+
+    private static String hash(String rawToken) {
+        return HashUtil.sha256Hex(rawToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public record Rotated(Long userId, String email, String role, String refreshToken) {
+    }
+}
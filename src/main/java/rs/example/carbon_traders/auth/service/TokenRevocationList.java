@@ -0,0 +1,65 @@
+package rs.example.carbon_traders.auth.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Access tokens revoked before their exp, by jti, checked by JwtFilter on every request.
+ * An exact in-memory set: an entry lives only until the token's own exp, which is at
+ * most access-token-ttl-ms away, so the set stays as small as the logouts of the last
+ * 15 minutes. Expired entries are swept on a schedule, never on the request thread.
+ *
+ * Metrics: auth.revoked.size (gauge), auth.revoked.hits.
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    // jti -> exp in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+
+    public TokenRevocationList(MeterRegistry meterRegistry) {
+        this.hits = meterRegistry.counter("auth.revoked.hits");
+        Gauge.builder("auth.revoked.size", revoked, Map::size).register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        if (expiresAt == null || expiresAt <= System.currentTimeMillis()) {
+            return false;
+        }
+        hits.increment();
+        return true;
+    }
+
+    // an expired token needs no entry, the signature check already rejects it
+    public void revoke(String jti, String subject, long expiresAt) {
+        if (jti == null || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        revoked.put(jti, expiresAt);
+        log.info("Access token {} of {} revoked", jti, subject);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.purge-interval-ms:60000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+}
@@ -4,14 +4,17 @@ pragma solidity ^0.8.20;
 import "@openzeppelin/contracts/token/ERC1155/ERC1155.sol";
 import "@openzeppelin/contracts/access/AccessControl.sol";
 import "@openzeppelin/contracts/utils/Strings.sol";
+import "@openzeppelin/contracts/utils/Multicall.sol";
 
 /**
  * @title CarbonCreditToken
  * @notice ERC1155 carbon credits with comprehensive metadata tracking.
  *         Tracks farmer registration, vintage/issuance/verification/tokenization dates,
  *         location, and retirement records with timestamps.
+ *         Multicall lets the backend pack many issuances/retirements into one
+ *         transaction (delegatecall keeps msg.sender, so role checks still apply).
  */
-contract CarbonCreditToken is ERC1155, AccessControl {
+contract CarbonCreditToken is ERC1155, AccessControl, Multicall {
     using Strings for uint256;
 
     bytes32 public constant ISSUER_ROLE = keccak256("ISSUER_ROLE");
@@ -49,6 +52,8 @@ contract CarbonCreditToken is ERC1155, AccessControl {
     mapping(uint256 => RetirementRecord[]) public retirementRecords;
     // Simple incremental ID counter
     uint256 private _nextTokenId = 1;
+    // keccak256(idempotency key) => already recorded, makes recordTrade safe to resend
+    mapping(bytes32 => bool) public recordedTrades;
 
     event BatchIssued(
         uint256 indexed tokenId,
@@ -70,6 +75,20 @@ contract CarbonCreditToken is ERC1155, AccessControl {
         string reason
     );
 
+    event BatchToppedUp(
+        uint256 indexed tokenId,
+        address indexed to,
+        uint256 amount,
+        string verificationDataHash
+    );
+
+    event TradeRecorded(
+        bytes32 indexed tradeKey,
+        uint256 indexed lotId,
+        uint256 amount,
+        uint256 executedAt
+    );
+
     constructor(string memory baseURI, address admin) ERC1155(baseURI) {
         _grantRole(DEFAULT_ADMIN_ROLE, admin);
         _grantRole(ISSUER_ROLE, admin);
@@ -185,6 +204,28 @@ contract CarbonCreditToken is ERC1155, AccessControl {
         }
 
         _mint(to, tokenId, amount, "");
+        emit BatchToppedUp(tokenId, to, amount, newVerificationDataHash);
+    }
+
+    /**
+     * @notice Record an off-chain marketplace trade. Resending the same key is a no-op,
+     *         so the backend can retry without creating duplicate records.
+     * @param tradeKey keccak256 of the backend idempotency key
+     * @param lotId Marketplace lot the credits were bought from
+     * @param amount Credits bought, in thousandths
+     * @param executedAt Unix timestamp of the trade
+     */
+    function recordTrade(
+        bytes32 tradeKey,
+        uint256 lotId,
+        uint256 amount,
+        uint256 executedAt
+    ) external onlyRole(ISSUER_ROLE) {
+        if (recordedTrades[tradeKey]) {
+            return;
+        }
+        recordedTrades[tradeKey] = true;
+        emit TradeRecorded(tradeKey, lotId, amount, executedAt);
     }
 
     /**
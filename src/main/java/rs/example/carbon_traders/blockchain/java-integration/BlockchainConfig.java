@@ -0,0 +1,51 @@
+package rs.example.carbon_traders.blockchain.config;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.http.HttpService;
+
+import rs.example.carbon_traders.blockchain.service.CircuitBreakingService;
+import rs.example.carbon_traders.blockchain.service.RpcCircuitBreaker;
+import rs.example.carbon_traders.common.exception.BusinessException;
+
+/**
+ * One Web3j client and one signing key for the whole application, so every component
+ * that talks to the chain (submission, nonces, receipts) shares them. Tests replace
+ * the Web3j bean with one backed by a local stand-in node.
+ */
+@Configuration
+public class BlockchainConfig {
+
+    // every call has a deadline and goes through the circuit breaker
+    @Bean(destroyMethod = "shutdown")
+    public Web3j web3j(@Value("${blockchain.rpc-url}") String rpcUrl,
+                       @Value("${blockchain.rpc.connect-timeout-ms:3000}") long connectTimeoutMillis,
+                       @Value("${blockchain.rpc.read-timeout-ms:10000}") long readTimeoutMillis,
+                       @Value("${blockchain.rpc.call-timeout-ms:15000}") long callTimeoutMillis,
+                       RpcCircuitBreaker rpcCircuitBreaker) {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .callTimeout(callTimeoutMillis, TimeUnit.MILLISECONDS)
+                .build();
+        return Web3j.build(new CircuitBreakingService(new HttpService(rpcUrl, client), rpcCircuitBreaker));
+    }
+
+    @Bean
+    public Credentials blockchainCredentials(@Value("${blockchain.private-key}") String privateKey) {
+        if (privateKey == null || privateKey.isBlank()) {
+            throw new IllegalStateException("blockchain.private-key is not set (BLOCKCHAIN_PRIVATE_KEY)");
+        }
+        try {
+            return Credentials.create(privateKey);
+        } catch (Exception e) {
+            throw new BusinessException("Invalid blockchain private key");
+        }
+    }
+}
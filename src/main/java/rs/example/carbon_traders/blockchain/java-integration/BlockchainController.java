@@ -2,6 +2,7 @@ package rs.example.carbon_traders.blockchain.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import rs.example.carbon_traders.blockchain.service.BlockchainService;
@@ -172,7 +173,7 @@ public class BlockchainController {
                 ApiResponse.success("Blockchain is available", "Connected")
             );
         } else {
-            return ResponseEntity.internalServerError()
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                 .body(ApiResponse.error("Blockchain connection failed"));
         }
     }
@@ -0,0 +1,85 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import java.math.BigInteger;
+import java.time.Instant;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+
+/**
+ * Node status probed in the background; health() and isAvailable() only read the last
+ * result, so /actuator/health and /api/v1/blockchain/health never wait on the node.
+ * The probe goes through the circuit breaker, which makes it the half-open probe once
+ * the open period has passed.
+ */
+@Slf4j
+@Component("blockchain")
+public class BlockchainHealthIndicator implements HealthIndicator {
+
+    private final Web3j web3j;
+    private final RpcCircuitBreaker circuitBreaker;
+
+    private volatile Snapshot snapshot = new Snapshot(false, null, null, 0, "not checked yet", null);
+
+    public BlockchainHealthIndicator(Web3j web3j, RpcCircuitBreaker circuitBreaker) {
+        this.web3j = web3j;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Scheduled(fixedDelayString = "${blockchain.health.refresh-ms:10000}")
+    public void refresh() {
+        long started = System.nanoTime();
+        try {
+            String clientVersion = web3j.web3ClientVersion().send().getWeb3ClientVersion();
+            BigInteger blockNumber = web3j.ethBlockNumber().send().getBlockNumber();
+            snapshot = new Snapshot(true, clientVersion, blockNumber, elapsedMillis(started), null, Instant.now());
+        } catch (Exception e) {
+            if (snapshot.up()) {
+                log.warn("Blockchain node unavailable: {}", e.getMessage());
+            }
+            snapshot = new Snapshot(false, snapshot.clientVersion(), snapshot.blockNumber(),
+                    elapsedMillis(started), e.getMessage(), Instant.now());
+        }
+    }
+
+    public boolean isAvailable() {
+        return snapshot.up();
+    }
+
+    @Override
+    public Health health() {
+        Snapshot current = snapshot;
+        Health.Builder builder = current.up() ? Health.up() : Health.down();
+        builder.withDetail("circuit", circuitBreaker.state().name())
+                .withDetail("latencyMs", current.latencyMillis());
+        if (current.clientVersion() != null) {
+            builder.withDetail("clientVersion", current.clientVersion());
+        }
+        if (current.blockNumber() != null) {
+            builder.withDetail("blockNumber", current.blockNumber());
+        }
+        if (current.error() != null) {
+            builder.withDetail("error", current.error());
+        }
+        if (current.checkedAt() != null) {
+            builder.withDetail("checkedAt", current.checkedAt().toString());
+        }
+        return builder.build();
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+
+    private record Snapshot(boolean up,
+                            String clientVersion,
+                            BigInteger blockNumber,
+                            long latencyMillis,
+                            String error,
+                            Instant checkedAt) {
+    }
+}
@@ -3,16 +3,16 @@ package rs.example.carbon_traders.blockchain.service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.web3j.crypto.Credentials;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.protocol.http.HttpService;
-import org.web3j.tx.gas.DefaultGasProvider;
 import rs.example.carbon_traders.common.exception.BusinessException;
+import rs.example.carbon_traders.common.exception.ServiceBusyException;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for interacting with CarbonCreditToken smart contract
@@ -23,29 +23,32 @@ import java.util.concurrent.CompletableFuture;
 public class BlockchainService {
 
     private final Web3j web3j;
+    private final BlockchainSubmissionQueue submissionQueue;
+    private final ChainReadCache chainReadCache;
+    private final BlockchainHealthIndicator healthIndicator;
     private final String contractAddress;
-    private final Credentials credentials;
     private final String adminAddress;
+    private final long submitTimeoutMs;
 
     public BlockchainService(
-            @Value("${blockchain.rpc-url}") String rpcUrl,
+            Web3j web3j,
+            BlockchainSubmissionQueue submissionQueue,
+            ChainReadCache chainReadCache,
+            BlockchainHealthIndicator healthIndicator,
             @Value("${blockchain.contract-address}") String contractAddress,
-            @Value("${blockchain.private-key}") String privateKey,
-            @Value("${blockchain.admin-address}") String adminAddress
+            @Value("${blockchain.admin-address}") String adminAddress,
+            @Value("${blockchain.batch.submit-timeout-ms:30000}") long submitTimeoutMs
     ) {
-        this.web3j = Web3j.build(new HttpService(rpcUrl));
+        this.web3j = web3j;
+        this.submissionQueue = submissionQueue;
+        this.chainReadCache = chainReadCache;
+        this.healthIndicator = healthIndicator;
         this.contractAddress = contractAddress;
         this.adminAddress = adminAddress;
-        
-        // Load credentials from private key
-        try {
-            this.credentials = Credentials.create(privateKey);
-            log.info("BlockchainService initialized | Contract: {} | Admin: {}", 
-                contractAddress, adminAddress);
-        } catch (Exception e) {
-            log.error("Failed to load credentials", e);
-            throw new BusinessException("Invalid blockchain private key");
-        }
+        this.submitTimeoutMs = submitTimeoutMs;
+
+        log.info("BlockchainService initialized | Contract: {} | Admin: {}",
+            contractAddress, adminAddress);
     }
 
     /**
@@ -84,14 +87,17 @@ public class BlockchainService {
         try {
             log.info("Issuing {} tons to farmer: {}", amount, farmerWalletAddress);
 
-            // In production, you'd use web3j contract wrapper here
-            // For now, this is a template showing the parameters
+            ChainOperation operation = submissionQueue.enqueue(ChainOperation.issue(
+                farmerWalletAddress, amount, farmerRegistrationNo, location,
+                vintageDate, verificationDate, issuanceDate, tokenizationDate,
+                verificationDataHash));
+            String txHash = awaitSubmission(operation);
 
-            String txHash = String.format("0x%s", UUID.randomUUID().toString().replace("-", ""));
-            
             log.info("Carbon batch issued | TxHash: {} | Amount: {}", txHash, amount);
             return txHash;
 
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error issuing carbon batch", e);
             throw new BusinessException("Blockchain issuance failed: " + e.getMessage());
@@ -125,41 +131,63 @@ public class BlockchainService {
         try {
             log.info("Retiring {} tons from token: {}", amount, tokenId);
 
-            String txHash = String.format("0x%s", UUID.randomUUID().toString().replace("-", ""));
-            
-            log.info("Credits retired | TxHash: {} | Amount: {} | Action: {}", 
+            ChainOperation operation =
+                submissionQueue.enqueue(ChainOperation.retire(tokenId, amount, ecoAction));
+            String txHash = awaitSubmission(operation);
+
+            log.info("Credits retired | TxHash: {} | Amount: {} | Action: {}",
                 txHash, amount, ecoAction);
             return txHash;
 
+        } catch (ServiceBusyException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error retiring credits", e);
             throw new BusinessException("Blockchain retirement failed: " + e.getMessage());
         }
     }
 
+    /**
+     * Queue an on-chain record of a marketplace trade without waiting for it.
+     * Used by the transaction outbox relay, which follows the returned futures.
+     *
+     * @param idempotencyKey  Stable key for the trade, resends with it are no-ops on chain
+     * @param lotId           Marketplace lot id
+     * @param credits         Credits bought, stored on chain in thousandths
+     * @param executedAt      Trade time (unix timestamp)
+     */
+    public ChainOperation recordTrade(String idempotencyKey, long lotId, double credits, long executedAt) {
+        return submissionQueue.enqueue(ChainOperation.recordTrade(
+            idempotencyKey, lotId, Math.round(credits * 1000), executedAt));
+    }
+
+    /**
+     * Receipt of an earlier transaction, empty while it is not mined
+     */
+    public Optional<TransactionReceipt> findReceipt(String txHash) throws IOException {
+        return web3j.ethGetTransactionReceipt(txHash).send().getTransactionReceipt();
+    }
+
+    // waits until the batch carrying the call is sent, not until it is mined
+    private String awaitSubmission(ChainOperation operation) throws Exception {
+        try {
+            return operation.getSubmitted().get(submitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
     /**
      * Get metadata for a carbon credit batch
-     * Used for display and verification
+     * Used for display and verification, served from the read cache
      */
     public Map<String, Object> getBatchMetadata(BigInteger tokenId) throws Exception {
         try {
-            log.info("Fetching batch metadata for token: {}", tokenId);
-
-            // Template response structure matching smart contract Batch struct
-            Map<String, Object> batch = new HashMap<>();
-            batch.put("tokenId", tokenId);
-            batch.put("farmerRegistrationNo", "FARMER-XXXX");
-            batch.put("location", "0°00'00.0\"N 0°00'00.0\"E");
-            batch.put("vintageDate", System.currentTimeMillis() / 1000 - (30 * 24 * 60 * 60));
-            batch.put("verificationDate", System.currentTimeMillis() / 1000 - (15 * 24 * 60 * 60));
-            batch.put("issuanceDate", System.currentTimeMillis() / 1000 - (5 * 24 * 60 * 60));
-            batch.put("tokenizationDate", System.currentTimeMillis() / 1000);
-            batch.put("issued", 100);
-            batch.put("retired", 25);
-            batch.put("verificationDataHash", "ipfs://Qm...");
-
-            return batch;
+            log.debug("Fetching batch metadata for token: {}", tokenId);
+            return chainReadCache.getBatch(tokenId);
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching batch metadata", e);
             throw new BusinessException("Failed to fetch batch metadata: " + e.getMessage());
@@ -168,24 +196,15 @@ public class BlockchainService {
 
     /**
      * Get retirement history for a token
-     * Shows all retirements and eco-actions performed
+     * Shows all retirements and eco-actions performed, served from the read cache
      */
     public List<Map<String, Object>> getRetirementHistory(BigInteger tokenId) throws Exception {
         try {
-            log.info("Fetching retirement history for token: {}", tokenId);
-
-            List<Map<String, Object>> history = new ArrayList<>();
-
-            // Template response matching RetirementRecord struct
-            Map<String, Object> record = new HashMap<>();
-            record.put("retiredBy", "0x3C44CdDdB6a900fa2b585dd299e03d12FA4293BC");
-            record.put("retirementDate", System.currentTimeMillis() / 1000);
-            record.put("amount", 25);
-            record.put("reason", "Reforestation in North America");
-
-            history.add(record);
-            return history;
+            log.debug("Fetching retirement history for token: {}", tokenId);
+            return chainReadCache.getRetirementHistory(tokenId);
 
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error fetching retirement history", e);
             throw new BusinessException("Failed to fetch history: " + e.getMessage());
@@ -218,6 +237,10 @@ public class BlockchainService {
                 new java.math.BigDecimal(balance), 
                 org.web3j.utils.Convert.Unit.ETHER
             ).toString();
+        } catch (IOException e) {
+            // node down or circuit open, an outage must not read as an empty wallet
+            log.warn("Wallet balance unavailable: {}", e.getMessage());
+            throw new BusinessException("Blockchain node unavailable: " + e.getMessage());
         } catch (Exception e) {
             log.error("Error fetching wallet balance", e);
             return "0";
@@ -226,14 +249,9 @@ public class BlockchainService {
 
     /**
      * Verify blockchain connection
+     * Reads the last background probe, never calls the node
      */
     public boolean isBlockchainAvailable() {
-        try {
-            web3j.web3ClientVersion().send();
-            return true;
-        } catch (Exception e) {
-            log.error("Blockchain connection failed", e);
-            return false;
-        }
+        return healthIndicator.isAvailable();
     }
 }
@@ -0,0 +1,242 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionEncoder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.utils.Numeric;
+
+import rs.example.carbon_traders.common.exception.BusinessException;
+import rs.example.carbon_traders.common.exception.ServiceBusyException;
+
+/**
+ * Single submitter for every state-changing contract call. Calls are collected for up
+ * to {@code window-ms} (or until {@code max-calls} are waiting) and sent as one signed
+ * transaction: a lone call is sent as is, several are packed into
+ * {@code CarbonCreditToken.multicall(bytes[])}. Nonces come from {@link NonceManager},
+ * so transactions from this account never race each other for the same nonce. Only the
+ * submitter thread signs and sends; calls of a reverted batch are handed back to it
+ * through a retry queue that it serves before new work.
+ */
+@Slf4j
+@Component
+public class BlockchainSubmissionQueue {
+
+    // how long an idle submitter waits for new calls before checking the retry queue
+    private static final long IDLE_POLL_MS = 200;
+
+    private final Web3j web3j;
+    private final Credentials credentials;
+    private final NonceManager nonceManager;
+    private final GasPriceStrategy gasPriceStrategy;
+    private final ReceiptTracker receiptTracker;
+    private final String contractAddress;
+    private final long chainId;
+    private final int maxCalls;
+    private final long windowMs;
+    private final BlockingQueue<ChainOperation> queue;
+
+    // calls of reverted batches, each sent alone; already accepted, so not bounded
+    private final BlockingQueue<ChainOperation> retries = new LinkedBlockingQueue<>();
+
+    // taken off the queue when the submitter was interrupted, sent by stop() after the join
+    private final List<ChainOperation> interrupted = new ArrayList<>();
+
+    private volatile boolean running;
+    private Thread submitter;
+
+    public BlockchainSubmissionQueue(Web3j web3j,
+                                     Credentials blockchainCredentials,
+                                     NonceManager nonceManager,
+                                     GasPriceStrategy gasPriceStrategy,
+                                     ReceiptTracker receiptTracker,
+                                     @Value("${blockchain.contract-address}") String contractAddress,
+                                     @Value("${blockchain.chain-id}") long chainId,
+                                     @Value("${blockchain.batch.max-calls:20}") int maxCalls,
+                                     @Value("${blockchain.batch.window-ms:2000}") long windowMs,
+                                     @Value("${blockchain.batch.queue-capacity:1000}") int queueCapacity) {
+        this.web3j = web3j;
+        this.credentials = blockchainCredentials;
+        this.nonceManager = nonceManager;
+        this.gasPriceStrategy = gasPriceStrategy;
+        this.receiptTracker = receiptTracker;
+        this.contractAddress = contractAddress;
+        this.chainId = chainId;
+        this.maxCalls = Math.max(1, maxCalls);
+        this.windowMs = windowMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        submitter = new Thread(this::run, "chain-submitter");
+        submitter.setDaemon(true);
+        submitter.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        submitter.interrupt();
+        submitter.join(TimeUnit.SECONDS.toMillis(10));
+
+        // the submitter is gone, so this thread is the only sender now
+        List<ChainOperation> alone = new ArrayList<>();
+        retries.drainTo(alone);
+        alone.forEach(operation -> submit(List.of(operation)));
+
+        // send whatever was accepted but not yet submitted
+        List<ChainOperation> remaining = new ArrayList<>(interrupted);
+        interrupted.clear();
+        queue.drainTo(remaining);
+        for (int i = 0; i < remaining.size(); i += maxCalls) {
+            submit(remaining.subList(i, Math.min(i + maxCalls, remaining.size())));
+        }
+    }
+
+    public ChainOperation enqueue(ChainOperation operation) {
+        if (!running) {
+            throw new ServiceBusyException("Blockchain submission queue is shutting down");
+        }
+        if (!queue.offer(operation)) {
+            throw new ServiceBusyException("Blockchain submission queue is full, try again later");
+        }
+        return operation;
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<ChainOperation> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.clear();
+
+                ChainOperation retry = retries.poll();
+                if (retry != null) {
+                    submit(List.of(retry));
+                    continue;
+                }
+
+                ChainOperation first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.currentTimeMillis() + windowMs;
+                while (batch.size() < maxCalls) {
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) {
+                        break;
+                    }
+                    ChainOperation next = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                submit(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrupted.addAll(batch);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Chain submitter failed", e);
+            }
+        }
+    }
+
+    void submit(List<ChainOperation> batch) {
+        List<ChainOperation> operations = List.copyOf(batch);
+        try {
+            String data = operations.size() == 1
+                    ? operations.get(0).encoded()
+                    : encodeMulticall(operations);
+
+            String txHash = send(data, operations.size(), true);
+            log.info("Submitted {} contract call(s) | TxHash: {}", operations.size(), txHash);
+
+            // tracked before callers see the hash, so a receipt poll right after finds it
+            receiptTracker.track(txHash, operations, this::resubmitIndividually);
+            operations.forEach(operation -> operation.getSubmitted().complete(txHash));
+        } catch (Exception e) {
+            log.error("Submission of {} contract call(s) failed", operations.size(), e);
+            operations.forEach(operation -> operation.failed(e));
+        }
+    }
+
+    // a reverted batch is retried call by call so only the bad call fails. Runs on the
+    // receipt poller, so the calls are only queued here and sent by the submitter
+    private void resubmitIndividually(List<ChainOperation> operations) {
+        retries.addAll(operations);
+    }
+
+    private String send(String data, int calls, boolean retryOnNonceError) throws IOException {
+        BigInteger nonce = nonceManager.next();
+        EthSendTransaction response;
+        try {
+            RawTransaction transaction = RawTransaction.createTransaction(
+                    nonce,
+                    gasPriceStrategy.gasPrice(),
+                    gasPriceStrategy.gasLimit(calls),
+                    contractAddress,
+                    BigInteger.ZERO,
+                    data);
+            byte[] signed = TransactionEncoder.signMessage(transaction, chainId, credentials);
+            response = web3j.ethSendRawTransaction(Numeric.toHexString(signed)).send();
+        } catch (IOException e) {
+            // unknown whether the node took the nonce, ask it again next time
+            nonceManager.resync();
+            throw e;
+        }
+
+        if (response.hasError()) {
+            String message = response.getError().getMessage();
+            nonceManager.resync();
+
+            if (retryOnNonceError && message != null && message.toLowerCase().contains("nonce")) {
+                log.warn("Nonce {} rejected ({}), resyncing with node", nonce, message);
+                return send(data, calls, false);
+            }
+            throw new BusinessException("Transaction rejected: " + message);
+        }
+        return response.getTransactionHash();
+    }
+
+    private static String encodeMulticall(List<ChainOperation> operations) {
+        List<DynamicBytes> calls = operations.stream()
+                .map(operation -> new DynamicBytes(Numeric.hexStringToByteArray(operation.encoded())))
+                .toList();
+
+        Function multicall = new Function(
+                "multicall",
+                List.of(new DynamicArray<>(DynamicBytes.class, calls)),
+                List.of());
+        return FunctionEncoder.encode(multicall);
+    }
+}
@@ -0,0 +1,105 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import lombok.Getter;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * One contract call waiting in the submission pipeline. {@code submitted} completes
+ * with the hash of the transaction that carries the call (shared by its whole batch);
+ * {@code confirmed} completes with the receipt once that transaction is mined. If a
+ * batch reverts, its calls are resent one per transaction, so the confirmed receipt
+ * may belong to a later transaction than the first submitted hash.
+ */
+@Getter
+public class ChainOperation {
+
+    public enum Kind {
+        ISSUE,
+        RETIRE,
+        RECORD_TRADE
+    }
+
+    private final Kind kind;
+    private final Function function;
+    private final String description;
+    private final CompletableFuture<String> submitted = new CompletableFuture<>();
+    private final CompletableFuture<TransactionReceipt> confirmed = new CompletableFuture<>();
+
+    private ChainOperation(Kind kind, Function function, String description) {
+        this.kind = kind;
+        this.function = function;
+        this.description = description;
+    }
+
+    // CarbonCreditToken.issueBatch
+    public static ChainOperation issue(String farmerWalletAddress,
+                                       long amount,
+                                       String farmerRegistrationNo,
+                                       String location,
+                                       long vintageDate,
+                                       long verificationDate,
+                                       long issuanceDate,
+                                       long tokenizationDate,
+                                       String verificationDataHash) {
+        Function function = new Function(
+                "issueBatch",
+                List.of(
+                        new Address(farmerWalletAddress),
+                        new Uint256(amount),
+                        new Utf8String(orEmpty(farmerRegistrationNo)),
+                        new Utf8String(orEmpty(location)),
+                        new Uint256(vintageDate),
+                        new Uint256(verificationDate),
+                        new Uint256(issuanceDate),
+                        new Uint256(tokenizationDate),
+                        new Utf8String(orEmpty(verificationDataHash))),
+                List.of(new TypeReference<Uint256>() {
+                }));
+        return new ChainOperation(Kind.ISSUE, function, "issue " + amount + " to " + farmerWalletAddress);
+    }
+
+    // CarbonCreditToken.retire, burns from the signing account
+    public static ChainOperation retire(BigInteger tokenId, long amount, String reason) {
+        Function function = new Function(
+                "retire",
+                List.of(new Uint256(tokenId), new Uint256(amount), new Utf8String(orEmpty(reason))),
+                List.of());
+        return new ChainOperation(Kind.RETIRE, function, "retire " + amount + " of token " + tokenId);
+    }
+
+    // CarbonCreditToken.recordTrade, a no-op on chain when the key was already recorded
+    public static ChainOperation recordTrade(String idempotencyKey, long lotId, long amount, long executedAt) {
+        byte[] tradeKey = Hash.sha3(idempotencyKey.getBytes(StandardCharsets.UTF_8));
+        Function function = new Function(
+                "recordTrade",
+                List.of(new Bytes32(tradeKey), new Uint256(lotId), new Uint256(amount), new Uint256(executedAt)),
+                List.of());
+        return new ChainOperation(Kind.RECORD_TRADE, function, "record trade " + idempotencyKey);
+    }
+
+    public String encoded() {
+        return FunctionEncoder.encode(function);
+    }
+
+    void failed(Throwable cause) {
+        submitted.completeExceptionally(cause);
+        confirmed.completeExceptionally(cause);
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,420 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.crypto.Hash;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.utils.Numeric;
+
+import rs.example.carbon_traders.common.exception.BusinessException;
+
+/**
+ * Read-through cache for batch metadata and retirement history, one view per token.
+ *
+ * A view starts from a snapshot of {@code batches(tokenId)} taken at a finalized block
+ * (head minus {@code confirmations}) plus the Retired logs up to that block. The
+ * snapshot is never read again: afterwards only Retired and BatchToppedUp logs newer
+ * than the view's last block are fetched, at most once per {@code refresh-ms}, and
+ * applied to the counters and history. Concurrent lookups of one token share a single
+ * load, and a failed refresh serves the last known view.
+ *
+ * Both the views and the ids found missing are bounded LRU maps: at most
+ * {@code max-entries} each, and a view unused for {@code view-ttl-ms} is dropped.
+ * {@code start-block} has no default; scanning from genesis costs thousands of
+ * eth_getLogs calls per token on a long chain.
+ *
+ * Metrics: blockchain.cache.hits, blockchain.cache.misses, blockchain.cache.rpc.
+ */
+@Slf4j
+@Component
+public class ChainReadCache {
+
+    private static final String RETIRED =
+            Hash.sha3String("Retired(uint256,address,uint256,uint256,string)");
+    private static final String BATCH_TOPPED_UP =
+            Hash.sha3String("BatchToppedUp(uint256,address,uint256,string)");
+
+    private final Web3j web3j;
+    private final String contractAddress;
+    private final long confirmations;
+    private final long refreshMillis;
+    private final long missingTtlMillis;
+    private final long startBlock;
+    private final long maxBlockRange;
+
+    private final long viewTtlMillis;
+
+    // access-ordered, guarded by their own monitor
+    private final Map<BigInteger, TokenView> views;
+    // tokens that did not exist at the last check, kept briefly so unknown ids stay cheap
+    private final Map<BigInteger, Long> missing;
+    private final RequestCoalescer<BigInteger, TokenView> loads = new RequestCoalescer<>();
+    private final RequestCoalescer<String, Long> headLoads = new RequestCoalescer<>();
+
+    private volatile long head;
+    private volatile long headReadAt;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rpcCalls;
+
+    public ChainReadCache(Web3j web3j,
+                          MeterRegistry meterRegistry,
+                          @Value("${blockchain.contract-address}") String contractAddress,
+                          @Value("${blockchain.cache.confirmations:12}") long confirmations,
+                          @Value("${blockchain.cache.refresh-ms:15000}") long refreshMillis,
+                          @Value("${blockchain.cache.missing-ttl-ms:30000}") long missingTtlMillis,
+                          @Value("${blockchain.cache.start-block}") long startBlock,
+                          @Value("${blockchain.cache.max-block-range:5000}") long maxBlockRange,
+                          @Value("${blockchain.cache.max-entries:10000}") int maxEntries,
+                          @Value("${blockchain.cache.view-ttl-ms:3600000}") long viewTtlMillis) {
+        if (startBlock < 0) {
+            throw new IllegalStateException("blockchain.cache.start-block must be the contract deployment block");
+        }
+        this.web3j = web3j;
+        this.contractAddress = contractAddress;
+        this.confirmations = confirmations;
+        this.refreshMillis = refreshMillis;
+        this.missingTtlMillis = missingTtlMillis;
+        this.startBlock = startBlock;
+        this.maxBlockRange = maxBlockRange;
+        this.viewTtlMillis = viewTtlMillis;
+        this.views = lru(maxEntries);
+        this.missing = lru(maxEntries);
+
+        this.hits = meterRegistry.counter("blockchain.cache.hits");
+        this.misses = meterRegistry.counter("blockchain.cache.misses");
+        this.rpcCalls = meterRegistry.counter("blockchain.cache.rpc");
+    }
+
+    public Map<String, Object> getBatch(BigInteger tokenId) throws Exception {
+        return view(tokenId).metadata();
+    }
+
+    public List<Map<String, Object>> getRetirementHistory(BigInteger tokenId) throws Exception {
+        return view(tokenId).history();
+    }
+
+    public void invalidate(BigInteger tokenId) {
+        synchronized (views) {
+            views.remove(tokenId);
+        }
+        synchronized (missing) {
+            missing.remove(tokenId);
+        }
+    }
+
+    // lookup
+
+    private TokenView view(BigInteger tokenId) throws Exception {
+        long now = System.currentTimeMillis();
+
+        TokenView cached;
+        synchronized (views) {
+            cached = views.get(tokenId);
+            if (cached != null && now - cached.usedAt >= viewTtlMillis) {
+                views.remove(tokenId);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            cached.usedAt = now;
+            if (now - cached.checkedAt < refreshMillis) {
+                hits.increment();
+                return cached;
+            }
+        }
+        Long missingSince;
+        synchronized (missing) {
+            missingSince = missing.get(tokenId);
+        }
+        if (cached == null && missingSince != null && now - missingSince < missingTtlMillis) {
+            hits.increment();
+            throw notFound(tokenId);
+        }
+
+        misses.increment();
+        TokenView stale = cached;
+        try {
+            return loads.load(tokenId, () -> stale == null ? create(tokenId) : refresh(stale));
+        } catch (IOException e) {
+            if (stale == null) {
+                throw e;
+            }
+            log.warn("Refreshing token {} failed, serving cached view", tokenId, e);
+            return stale;
+        }
+    }
+
+    private TokenView create(BigInteger tokenId) throws IOException {
+        long finalized = finalizedBlock();
+        TokenView view = readSnapshot(tokenId, finalized);
+        if (view == null) {
+            synchronized (missing) {
+                missing.put(tokenId, System.currentTimeMillis());
+            }
+            throw notFound(tokenId);
+        }
+
+        // the snapshot counters already include everything up to the finalized block
+        for (Log entry : logs(tokenId, startBlock, finalized)) {
+            if (RETIRED.equals(entry.getTopics().get(0))) {
+                view.addRetirement(entry, false);
+            }
+        }
+        view.advance(finalized);
+        synchronized (views) {
+            views.put(tokenId, view);
+        }
+        synchronized (missing) {
+            missing.remove(tokenId);
+        }
+        return view;
+    }
+
+    private TokenView refresh(TokenView view) throws IOException {
+        long finalized = finalizedBlock();
+        if (finalized > view.lastBlock) {
+            for (Log entry : logs(view.tokenId, view.lastBlock + 1, finalized)) {
+                String topic = entry.getTopics().get(0);
+                if (RETIRED.equals(topic)) {
+                    view.addRetirement(entry, true);
+                } else if (BATCH_TOPPED_UP.equals(topic)) {
+                    view.addTopUp(entry);
+                }
+            }
+        }
+        view.advance(Math.max(finalized, view.lastBlock));
+        return view;
+    }
+
+    // rpc
+
+    // shared by every token, read at most once per refresh interval
+    private long finalizedBlock() throws IOException {
+        if (System.currentTimeMillis() - headReadAt >= refreshMillis) {
+            try {
+                headLoads.load("head", () -> {
+                    rpcCalls.increment();
+                    head = web3j.ethBlockNumber().send().getBlockNumber().longValue();
+                    headReadAt = System.currentTimeMillis();
+                    return head;
+                });
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+        return Math.max(0, head - confirmations);
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private TokenView readSnapshot(BigInteger tokenId, long block) throws IOException {
+        Function getter = new Function(
+                "batches",
+                List.of(new Uint256(tokenId)),
+                List.of(
+                        new TypeReference<Utf8String>() {
+                        },
+                        new TypeReference<Utf8String>() {
+                        },
+                        new TypeReference<Uint256>() {
+                        },
+                        new TypeReference<Uint256>() {
+                        },
+                        new TypeReference<Uint256>() {
+                        },
+                        new TypeReference<Uint256>() {
+                        },
+                        new TypeReference<Uint256>() {
+                        },
+                        new TypeReference<Uint256>() {
+                        },
+                        new TypeReference<Utf8String>() {
+                        }));
+
+        rpcCalls.increment();
+        EthCall call = web3j.ethCall(
+                        Transaction.createEthCallTransaction(null, contractAddress, FunctionEncoder.encode(getter)),
+                        DefaultBlockParameter.valueOf(BigInteger.valueOf(block)))
+                .send();
+        if (call.hasError()) {
+            throw new IOException("batches(" + tokenId + ") failed: " + call.getError().getMessage());
+        }
+
+        List<Type> values = FunctionReturnDecoder.decode(call.getValue(), getter.getOutputParameters());
+        if (values.isEmpty() || ((BigInteger) values.get(6).getValue()).signum() == 0) {
+            return null;
+        }
+
+        Map<String, Object> descriptor = new HashMap<>();
+        descriptor.put("tokenId", tokenId);
+        descriptor.put("farmerRegistrationNo", values.get(0).getValue());
+        descriptor.put("location", values.get(1).getValue());
+        descriptor.put("vintageDate", ((BigInteger) values.get(2).getValue()).longValue());
+        descriptor.put("verificationDate", ((BigInteger) values.get(3).getValue()).longValue());
+        descriptor.put("issuanceDate", ((BigInteger) values.get(4).getValue()).longValue());
+        descriptor.put("tokenizationDate", ((BigInteger) values.get(5).getValue()).longValue());
+
+        return new TokenView(
+                tokenId,
+                Map.copyOf(descriptor),
+                (BigInteger) values.get(6).getValue(),
+                (BigInteger) values.get(7).getValue(),
+                (String) values.get(8).getValue());
+    }
+
+    private List<Log> logs(BigInteger tokenId, long fromBlock, long toBlock) throws IOException {
+        List<Log> result = new ArrayList<>();
+        String tokenTopic = Numeric.toHexStringWithPrefixZeroPadded(tokenId, 64);
+
+        // providers cap the block range of one eth_getLogs call
+        for (long from = fromBlock; from <= toBlock; from += maxBlockRange) {
+            long to = Math.min(toBlock, from + maxBlockRange - 1);
+            EthFilter filter = new EthFilter(
+                    DefaultBlockParameter.valueOf(BigInteger.valueOf(from)),
+                    DefaultBlockParameter.valueOf(BigInteger.valueOf(to)),
+                    contractAddress);
+            filter.addOptionalTopics(RETIRED, BATCH_TOPPED_UP);
+            filter.addSingleTopic(tokenTopic);
+
+            rpcCalls.increment();
+            EthLog response = web3j.ethGetLogs(filter).send();
+            if (response.hasError()) {
+                throw new IOException("eth_getLogs failed: " + response.getError().getMessage());
+            }
+            for (EthLog.LogResult<?> entry : response.getLogs()) {
+                result.add((Log) entry.get());
+            }
+        }
+        return result;
+    }
+
+    // access-ordered LinkedHashMap evicts the least recently used entry
+    private static <V> Map<BigInteger, V> lru(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BigInteger, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private static BusinessException notFound(BigInteger tokenId) {
+        return new BusinessException("Carbon batch " + tokenId + " not found");
+    }
+
+    // one token, mutated only by the coalesced loader
+
+    private static final class TokenView {
+
+        private final BigInteger tokenId;
+        private final Map<String, Object> descriptor;
+        private final List<Map<String, Object>> retirements = new ArrayList<>();
+
+        private BigInteger issued;
+        private BigInteger retired;
+        private String verificationDataHash;
+
+        private volatile long lastBlock;
+        private volatile long checkedAt;
+        private volatile long usedAt = System.currentTimeMillis();
+
+        TokenView(BigInteger tokenId,
+                  Map<String, Object> descriptor,
+                  BigInteger issued,
+                  BigInteger retired,
+                  String verificationDataHash) {
+            this.tokenId = tokenId;
+            this.descriptor = descriptor;
+            this.issued = issued;
+            this.retired = retired;
+            this.verificationDataHash = verificationDataHash;
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        synchronized void addRetirement(Log entry, boolean countIt) {
+            List<Type> data = FunctionReturnDecoder.decode(entry.getData(), (List) List.of(
+                    new TypeReference<Uint256>() {
+                    },
+                    new TypeReference<Uint256>() {
+                    },
+                    new TypeReference<Utf8String>() {
+                    }));
+            Address account = (Address) FunctionReturnDecoder.decodeIndexedValue(
+                    entry.getTopics().get(2), new TypeReference<Address>() {
+                    });
+            BigInteger amount = (BigInteger) data.get(0).getValue();
+
+            Map<String, Object> record = new HashMap<>();
+            record.put("retiredBy", account.getValue());
+            record.put("retirementDate", ((BigInteger) data.get(1).getValue()).longValue());
+            record.put("amount", amount);
+            record.put("reason", data.get(2).getValue());
+            record.put("txHash", entry.getTransactionHash());
+            retirements.add(Map.copyOf(record));
+
+            if (countIt) {
+                retired = retired.add(amount);
+            }
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        synchronized void addTopUp(Log entry) {
+            List<Type> data = FunctionReturnDecoder.decode(entry.getData(), (List) List.of(
+                    new TypeReference<Uint256>() {
+                    },
+                    new TypeReference<Utf8String>() {
+                    }));
+            issued = issued.add((BigInteger) data.get(0).getValue());
+            String newHash = (String) data.get(1).getValue();
+            if (!newHash.isEmpty()) {
+                verificationDataHash = newHash;
+            }
+        }
+
+        void advance(long block) {
+            lastBlock = block;
+            checkedAt = System.currentTimeMillis();
+        }
+
+        synchronized Map<String, Object> metadata() {
+            Map<String, Object> metadata = new HashMap<>(descriptor);
+            metadata.put("issued", issued);
+            metadata.put("retired", retired);
+            metadata.put("verificationDataHash", verificationDataHash);
+            metadata.put("asOfBlock", lastBlock);
+            return metadata;
+        }
+
+        synchronized List<Map<String, Object>> history() {
+            return List.copyOf(retirements);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import io.reactivex.Flowable;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+/**
+ * Web3j transport that routes every request through the {@link RpcCircuitBreaker}, so all
+ * users of the shared Web3j client (submission, receipts, read cache, health) are covered
+ * without wrapping individual calls.
+ */
+public class CircuitBreakingService implements Web3jService {
+
+    private final Web3jService delegate;
+    private final RpcCircuitBreaker circuitBreaker;
+
+    public CircuitBreakingService(Web3jService delegate, RpcCircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    // Web3jService declares Request and Response raw, so an override has to as well;
+    // Request<?, ?> does not override and fails with a name clash
+    @Override
+    @SuppressWarnings("rawtypes")
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+        circuitBreaker.acquire();
+        try {
+            T response = delegate.send(request, responseType);
+            circuitBreaker.onSuccess();
+            return response;
+        } catch (IOException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        } finally {
+            circuitBreaker.release();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+        try {
+            circuitBreaker.acquire();
+        } catch (RpcUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            return delegate.sendAsync(request, responseType).whenComplete(this::record);
+        } catch (RuntimeException e) {
+            circuitBreaker.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public BatchResponse sendBatch(BatchRequest batchRequest) throws IOException {
+        circuitBreaker.acquire();
+        try {
+            BatchResponse response = delegate.sendBatch(batchRequest);
+            circuitBreaker.onSuccess();
+            return response;
+        } catch (IOException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        } finally {
+            circuitBreaker.release();
+        }
+    }
+
+    @Override
+    public CompletableFuture<BatchResponse> sendBatchAsync(BatchRequest batchRequest) {
+        try {
+            circuitBreaker.acquire();
+        } catch (RpcUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            return delegate.sendBatchAsync(batchRequest).whenComplete(this::record);
+        } catch (RuntimeException e) {
+            circuitBreaker.release();
+            throw e;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public <T extends Notification<?>> Flowable<T> subscribe(Request request,
+                                                            String unsubscribeMethod,
+                                                            Class<T> responseType) {
+        return delegate.subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private void record(Object response, Throwable error) {
+        try {
+            if (error == null) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+        } finally {
+            circuitBreaker.release();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Gas pricing hook for the submission pipeline. Declare a @Primary bean to replace
+ * the default node-price strategy (e.g. fixed price on a private chain, or an oracle).
+ */
+public interface GasPriceStrategy {
+
+    BigInteger gasPrice() throws IOException;
+
+    // gas limit for a transaction carrying this many contract calls
+    BigInteger gasLimit(int calls);
+}
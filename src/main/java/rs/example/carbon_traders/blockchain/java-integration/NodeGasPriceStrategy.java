@@ -0,0 +1,46 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.utils.Convert;
+
+// node's eth_gasPrice plus a premium, capped; gas limit grows with the batch
+@Component
+public class NodeGasPriceStrategy implements GasPriceStrategy {
+
+    private static final BigInteger HUNDRED = BigInteger.valueOf(100);
+
+    private final Web3j web3j;
+    private final BigInteger premiumPercent;
+    private final BigInteger maxGasPrice;
+    private final BigInteger baseGas;
+    private final BigInteger gasPerCall;
+
+    public NodeGasPriceStrategy(Web3j web3j,
+                                @Value("${blockchain.gas.premium-percent:10}") long premiumPercent,
+                                @Value("${blockchain.gas.max-gwei:500}") long maxGwei,
+                                @Value("${blockchain.gas.base:60000}") long baseGas,
+                                @Value("${blockchain.gas.per-call:250000}") long gasPerCall) {
+        this.web3j = web3j;
+        this.premiumPercent = BigInteger.valueOf(premiumPercent);
+        this.maxGasPrice = Convert.toWei(String.valueOf(maxGwei), Convert.Unit.GWEI).toBigInteger();
+        this.baseGas = BigInteger.valueOf(baseGas);
+        this.gasPerCall = BigInteger.valueOf(gasPerCall);
+    }
+
+    @Override
+    public BigInteger gasPrice() throws IOException {
+        BigInteger nodePrice = web3j.ethGasPrice().send().getGasPrice();
+        BigInteger withPremium = nodePrice.multiply(HUNDRED.add(premiumPercent)).divide(HUNDRED);
+        return withPremium.min(maxGasPrice);
+    }
+
+    @Override
+    public BigInteger gasLimit(int calls) {
+        return baseGas.add(gasPerCall.multiply(BigInteger.valueOf(calls)));
+    }
+}
@@ -0,0 +1,47 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+
+/**
+ * Hands out account nonces locally so concurrent submissions never reuse one. The
+ * counter is seeded from the node's pending transaction count and re-seeded after the
+ * node rejects a nonce (another signer used the key, or a transaction was dropped).
+ */
+@Slf4j
+@Component
+public class NonceManager {
+
+    private final Web3j web3j;
+    private final String address;
+
+    private BigInteger next;
+
+    public NonceManager(Web3j web3j, Credentials blockchainCredentials) {
+        this.web3j = web3j;
+        this.address = blockchainCredentials.getAddress();
+    }
+
+    public synchronized BigInteger next() throws IOException {
+        if (next == null) {
+            next = web3j.ethGetTransactionCount(address, DefaultBlockParameterName.PENDING)
+                    .send()
+                    .getTransactionCount();
+            log.info("Nonce for {} seeded at {}", address, next);
+        }
+        BigInteger nonce = next;
+        next = next.add(BigInteger.ONE);
+        return nonce;
+    }
+
+    // the next call reads the count from the node again
+    public synchronized void resync() {
+        next = null;
+    }
+}
@@ -0,0 +1,91 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import rs.example.carbon_traders.common.exception.BusinessException;
+
+/**
+ * Polls receipts for submitted transactions and settles the calls they carry. A
+ * reverted multi-call transaction is handed back to the submitter, which resends its
+ * calls one by one so a single bad call does not fail the rest of the batch.
+ */
+@Slf4j
+@Component
+public class ReceiptTracker {
+
+    private final Web3j web3j;
+    private final long timeoutMs;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    public ReceiptTracker(Web3j web3j,
+                          @Value("${blockchain.receipts.timeout-ms:600000}") long timeoutMs) {
+        this.web3j = web3j;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public void track(String txHash, List<ChainOperation> operations, Consumer<List<ChainOperation>> onRevert) {
+        pending.put(txHash, new Pending(operations, onRevert, System.currentTimeMillis() + timeoutMs));
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${blockchain.receipts.poll-interval-ms:2000}")
+    public void poll() {
+        for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+            String txHash = entry.getKey();
+            Pending tracked = entry.getValue();
+            try {
+                Optional<TransactionReceipt> receipt =
+                        web3j.ethGetTransactionReceipt(txHash).send().getTransactionReceipt();
+
+                if (receipt.isPresent()) {
+                    pending.remove(txHash);
+                    settle(txHash, receipt.get(), tracked);
+                } else if (System.currentTimeMillis() > tracked.deadline) {
+                    pending.remove(txHash);
+                    BusinessException timeout =
+                            new BusinessException("Transaction " + txHash + " not mined in time");
+                    tracked.operations.forEach(operation -> operation.failed(timeout));
+                }
+            } catch (IOException e) {
+                // node unreachable, try again on the next poll
+                log.warn("Receipt lookup failed for {}", txHash, e);
+            }
+        }
+    }
+
+    private void settle(String txHash, TransactionReceipt receipt, Pending tracked) {
+        if (receipt.isStatusOK()) {
+            tracked.operations.forEach(operation -> operation.getConfirmed().complete(receipt));
+            return;
+        }
+        if (tracked.operations.size() > 1) {
+            log.warn("Batch transaction {} reverted, resending its {} calls one by one",
+                    txHash, tracked.operations.size());
+            tracked.onRevert.accept(tracked.operations);
+            return;
+        }
+        ChainOperation operation = tracked.operations.get(0);
+        log.error("Transaction {} reverted | {}", txHash, operation.getDescription());
+        operation.failed(new BusinessException("Transaction reverted: " + txHash));
+    }
+
+    private record Pending(List<ChainOperation> operations,
+                           Consumer<List<ChainOperation>> onRevert,
+                           long deadline) {
+    }
+}
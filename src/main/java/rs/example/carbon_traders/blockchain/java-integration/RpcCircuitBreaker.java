@@ -0,0 +1,106 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breaker for the RPC node. After {@code failure-threshold} consecutive transport
+ * failures (timeouts, refused connections) the circuit opens and calls fail immediately
+ * for {@code open-ms}. Then up to {@code half-open-probes} calls are let through: one
+ * success closes the circuit, a failure opens it again. JSON-RPC error responses are
+ * answers from a healthy node and do not count.
+ *
+ * Metrics: blockchain.rpc.circuit.state (0 closed, 1 half-open, 2 open),
+ * blockchain.rpc.failures and blockchain.rpc.rejected.
+ */
+@Slf4j
+@Component
+public class RpcCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final int halfOpenProbes;
+
+    private final Counter failures;
+    private final Counter rejected;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private int probesInFlight;
+
+    public RpcCircuitBreaker(MeterRegistry meterRegistry,
+                             @Value("${blockchain.circuit.failure-threshold:5}") int failureThreshold,
+                             @Value("${blockchain.circuit.open-ms:30000}") long openMillis,
+                             @Value("${blockchain.circuit.half-open-probes:1}") int halfOpenProbes) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.halfOpenProbes = halfOpenProbes;
+
+        this.failures = meterRegistry.counter("blockchain.rpc.failures");
+        this.rejected = meterRegistry.counter("blockchain.rpc.rejected");
+        Gauge.builder("blockchain.rpc.circuit.state", this, breaker -> breaker.state().ordinal())
+                .register(meterRegistry);
+    }
+
+    // call before each RPC, throws while the circuit is open
+    public synchronized void acquire() throws RpcUnavailableException {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                rejected.increment();
+                throw new RpcUnavailableException("Blockchain node unavailable, circuit open");
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            log.info("RPC circuit half-open, probing node");
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= halfOpenProbes) {
+                rejected.increment();
+                throw new RpcUnavailableException("Blockchain node unavailable, probe in progress");
+            }
+            probesInFlight++;
+        }
+    }
+
+    // call after each RPC acquire() let through, whatever the outcome, so a probe that
+    // ended in an unexpected exception does not keep its half-open slot
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            log.info("RPC circuit closed");
+        }
+    }
+
+    public synchronized void onFailure() {
+        failures.increment();
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            log.warn("RPC circuit open after {} consecutive failures, retrying in {} ms",
+                    consecutiveFailures, openMillis);
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+}
@@ -0,0 +1,13 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import java.io.IOException;
+
+// thrown instead of calling the node while the RPC circuit is open
+public class RpcUnavailableException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RpcUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -156,11 +156,64 @@ describe("CarbonCreditToken", function () {
       "ipfs://old"
     );
 
-    await token.topUp(farmer.address, tokenId, topUp, "ipfs://new");
+    await expect(token.topUp(farmer.address, tokenId, topUp, "ipfs://new"))
+      .to.emit(token, "BatchToppedUp")
+      .withArgs(tokenId, farmer.address, topUp, "ipfs://new");
 
     const batch = await token.getBatch(tokenId);
     expect(batch.issued).to.equal(initial + topUp);
     expect(batch.verificationDataHash).to.equal("ipfs://new");
     expect(await token.balanceOf(farmer.address, tokenId)).to.equal(initial + topUp);
   });
+
+  it("packs several issuances into one multicall transaction", async () => {
+    const now = Math.floor(Date.now() / 1000);
+    const calls = [1n, 2n, 3n].map((amount) =>
+      token.interface.encodeFunctionData("issueBatch", [
+        farmer.address,
+        amount,
+        `FARMER-10${amount}`,
+        "Location",
+        now - 30 * 24 * 60 * 60,
+        now - 15 * 24 * 60 * 60,
+        now - 5 * 24 * 60 * 60,
+        now,
+        "ipfs://batch",
+      ])
+    );
+
+    const firstId = await token.issueBatch.staticCall(
+      farmer.address, 1n, "probe", "Location", now, now, now, now, "ipfs://probe"
+    );
+    await (await token.connect(issuer).multicall(calls)).wait();
+
+    for (let i = 0n; i < 3n; i++) {
+      const batch = await token.getBatch(firstId + i);
+      expect(batch.issued).to.equal(i + 1n);
+      expect(await token.balanceOf(farmer.address, firstId + i)).to.equal(i + 1n);
+    }
+  });
+
+  it("reverts the whole multicall when one call is not allowed", async () => {
+    const now = Math.floor(Date.now() / 1000);
+    const call = token.interface.encodeFunctionData("issueBatch", [
+      buyer.address, 1n, "p", "d", now, now, now, now, "ipfs://x",
+    ]);
+
+    await expect(token.connect(buyer).multicall([call, call])).to.be.reverted;
+  });
+
+  it("records a trade once per idempotency key", async () => {
+    const key = ethers.id("trade-42");
+    const now = Math.floor(Date.now() / 1000);
+
+    await expect(token.recordTrade(key, 7n, 2500n, now))
+      .to.emit(token, "TradeRecorded")
+      .withArgs(key, 7n, 2500n, now);
+    expect(await token.recordedTrades(key)).to.equal(true);
+
+    // a resend after an ambiguous failure succeeds without a second record
+    await expect(token.recordTrade(key, 7n, 2500n, now)).to.not.emit(token, "TradeRecorded");
+    await expect(token.connect(buyer).recordTrade(ethers.id("trade-43"), 7n, 1n, now)).to.be.reverted;
+  });
 });
@@ -0,0 +1,35 @@
+package rs.example.carbon_traders.carboncredit.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import rs.example.carbon_traders.carboncredit.dto.MarketplaceListing;
+import rs.example.carbon_traders.carboncredit.enums.MarketplaceSort;
+import rs.example.carbon_traders.carboncredit.service.CarbonCreditService;
+import rs.example.carbon_traders.common.response.CursorPage;
+
+@RestController
+@RequestMapping("/api/credits")
+public class CarbonCreditController {
+
+    private final CarbonCreditService carbonCreditService;
+
+    public CarbonCreditController(CarbonCreditService carbonCreditService) {
+        this.carbonCreditService = carbonCreditService;
+    }
+
+    // browse lots for sale, filtered by farmer region and price
+    @GetMapping("/marketplace")
+    public ResponseEntity<CursorPage<MarketplaceListing>> getMarketplace(
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) String district,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "PRICE_ASC") MarketplaceSort sort,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(carbonCreditService.searchMarketplace(
+                state, district, minPrice, maxPrice, sort,
+                cursor, CursorPage.clampSize(size)));
+    }
+}
@@ -0,0 +1,50 @@
+package rs.example.carbon_traders.carboncredit.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
+import rs.example.carbon_traders.farmer.entity.Farmer;
+
+// immutable marketplace row, replaced (never mutated) when the lot balance changes.
+// version is the lot's @Version at the write that produced it, so late updates can be dropped
+@Getter
+@AllArgsConstructor
+public class MarketplaceListing {
+
+    private final Long lotId;
+    private final Long farmerId;
+    private final String village;
+    private final String district;
+    private final String state;
+    private final Double pricePerCredit;
+    private final Double totalCredits;
+    private final Double availableCredits;
+    private final String status;
+    private final LocalDateTime createdAt;
+    private final Long version;
+
+    public static MarketplaceListing from(CarbonCredit lot) {
+        Farmer farmer = lot.getFarmer();
+        return new MarketplaceListing(
+                lot.getId(),
+                farmer.getId(),
+                farmer.getVillage(),
+                farmer.getDistrict(),
+                farmer.getState(),
+                lot.getPricePerCredit(),
+                lot.getTotalCredits(),
+                lot.getAvailableCredits(),
+                lot.getStatus(),
+                lot.getCreatedAt(),
+                lot.getVersion()
+        );
+    }
+
+    public MarketplaceListing withBalance(Double availableCredits, String status, Long version) {
+        return new MarketplaceListing(lotId, farmerId, village, district, state,
+                pricePerCredit, totalCredits, availableCredits, status, createdAt, version);
+    }
+}
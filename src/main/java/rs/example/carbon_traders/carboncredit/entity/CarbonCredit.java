@@ -2,6 +2,7 @@ package rs.example.carbon_traders.carboncredit.entity;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -15,6 +16,7 @@ import rs.example.carbon_traders.company.entity.Company;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class CarbonCredit {
 
     @Id
@@ -30,6 +32,7 @@ public class CarbonCredit {
     private Double availableCredits;
 
     //sold cradit
+    @Builder.Default
     private Double soldCredits = 0.0;
 
     // Price of single cradit
@@ -41,16 +44,21 @@ public class CarbonCredit {
     private String status;
 
     // Farmer who owns this credit
-    @ManyToOne
+    // lazy by default, use the WithFarmer repository variants when it is needed
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "farmer_id", nullable = false)
     private Farmer farmer;
 
     // Company who bought credits (nullable until sold)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id")
     private Company company;
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    // optimistic lock, bumped on every balance change
+    @Version
+    private Long version;
 }
 
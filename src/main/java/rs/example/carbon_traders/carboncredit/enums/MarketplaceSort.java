@@ -0,0 +1,10 @@
+package rs.example.carbon_traders.carboncredit.enums;
+
+public enum MarketplaceSort {
+
+    PRICE_ASC,    // cheapest first
+    PRICE_DESC,   // most expensive first
+    NEWEST,       // latest listed lots first
+    OLDEST        // earliest listed lots first
+
+}
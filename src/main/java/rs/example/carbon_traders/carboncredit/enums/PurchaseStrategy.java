@@ -0,0 +1,8 @@
+package rs.example.carbon_traders.carboncredit.enums;
+
+public enum PurchaseStrategy {
+
+    OPTIMISTIC,          // read, check, UPDATE ... WHERE version = ?; retried in a fresh transaction on conflict
+    CONDITIONAL_UPDATE   // one UPDATE ... WHERE available_credits >= ?
+
+}
@@ -1,8 +1,13 @@
 package rs.example.carbon_traders.carboncredit.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
@@ -17,5 +22,48 @@ public interface CarbonCreditRepository extends JpaRepository<CarbonCredit, Long
     List<CarbonCredit> findByCompany(Company company);
 
     List<CarbonCredit> findByStatus(String status);
+
+    // lots with supply left, loaded into the order book at startup
+    List<CarbonCredit> findByAvailableCreditsGreaterThan(Double credits);
+
+    // same lots with the farmer joined, for the marketplace view
+    @EntityGraph(attributePaths = {"farmer"})
+    List<CarbonCredit> findWithFarmerByAvailableCreditsGreaterThan(Double credits);
+
+    // single-statement purchase, returns 0 when the lot is missing or short of supply,
+    // or the quantity is not positive.
+    // availableCredits is assigned last because MySQL evaluates SET items left to right
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CarbonCredit c SET "
+            + "c.status = CASE WHEN c.availableCredits - :credits <= 0 THEN 'SOLD' ELSE 'PARTIALLY_SOLD' END, "
+            + "c.soldCredits = COALESCE(c.soldCredits, 0) + :credits, "
+            + "c.company = :company, "
+            + "c.updatedAt = :now, "
+            + "c.version = COALESCE(c.version, 0) + 1, "
+            + "c.availableCredits = c.availableCredits - :credits "
+            + "WHERE c.id = :id AND :credits > 0 AND c.availableCredits >= :credits")
+    int reserveCredits(@Param("id") Long id,
+                       @Param("credits") Double credits,
+                       @Param("company") Company company,
+                       @Param("now") LocalDateTime now);
+
+    // optimistic purchase: writes the balance computed from a read of version :version,
+    // returns 0 when another buyer got there first
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CarbonCredit c SET "
+            + "c.availableCredits = :available, "
+            + "c.soldCredits = :sold, "
+            + "c.status = :status, "
+            + "c.company = :company, "
+            + "c.updatedAt = :now, "
+            + "c.version = COALESCE(c.version, 0) + 1 "
+            + "WHERE c.id = :id AND COALESCE(c.version, 0) = :version")
+    int writeBalance(@Param("id") Long id,
+                     @Param("version") Long version,
+                     @Param("available") Double available,
+                     @Param("sold") Double sold,
+                     @Param("status") String status,
+                     @Param("company") Company company,
+                     @Param("now") LocalDateTime now);
 }
 
@@ -1,24 +1,48 @@
 package rs.example.carbon_traders.carboncredit.service;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import rs.example.carbon_traders.carboncredit.dto.MarketplaceListing;
 import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
+import rs.example.carbon_traders.carboncredit.enums.MarketplaceSort;
+import rs.example.carbon_traders.carboncredit.enums.PurchaseStrategy;
 import rs.example.carbon_traders.carboncredit.repository.CarbonCreditRepository;
+import rs.example.carbon_traders.common.exception.BusinessException;
+import rs.example.carbon_traders.common.response.CursorPage;
+import rs.example.carbon_traders.common.transaction.AfterCommit;
+import rs.example.carbon_traders.common.transaction.RetryingTransactionExecutor;
 import rs.example.carbon_traders.company.entity.Company;
 import rs.example.carbon_traders.farmer.entity.Farmer;
+import rs.example.carbon_traders.trading.engine.MatchingEngine;
 
 @Service
 @Transactional
 public class CarbonCreditService {
 
     private final CarbonCreditRepository carbonCreditRepository;
-
-    public CarbonCreditService(CarbonCreditRepository carbonCreditRepository) {
+    private final MatchingEngine matchingEngine;
+    private final MarketplaceView marketplaceView;
+    private final PurchaseStrategy purchaseStrategy;
+    private final RetryingTransactionExecutor retryingTransactionExecutor;
+
+    public CarbonCreditService(CarbonCreditRepository carbonCreditRepository,
+                               MatchingEngine matchingEngine,
+                               MarketplaceView marketplaceView,
+                               @Value("${carbon-credit.purchase.strategy:CONDITIONAL_UPDATE}")
+                               PurchaseStrategy purchaseStrategy,
+                               RetryingTransactionExecutor retryingTransactionExecutor) {
         this.carbonCreditRepository = carbonCreditRepository;
+        this.matchingEngine = matchingEngine;
+        this.marketplaceView = marketplaceView;
+        this.purchaseStrategy = purchaseStrategy;
+        this.retryingTransactionExecutor = retryingTransactionExecutor;
     }
 
     //farmer generated cradit
@@ -37,16 +61,72 @@ public class CarbonCreditService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        return carbonCreditRepository.save(carbonCredit);
+        CarbonCredit saved = carbonCreditRepository.save(carbonCredit);
+
+        MarketplaceListing listing = MarketplaceListing.from(saved);
+        AfterCommit.run(() -> marketplaceView.listed(listing));
+
+        // list the new lot in the order book once it exists for the trade recorder
+        if (matchingEngine.isEnabled()) {
+            AfterCommit.run(() -> matchingEngine.addOffer(saved));
+        }
+        return saved;
     }
 
     // company buy cradit
+    // direct DB path, used when the matching engine is disabled. Inside a caller's
+    // transaction an OPTIMISTIC conflict is thrown for the caller's retry loop
+    // (RetryingTransactionExecutor); without one, the purchase runs in its own
+    // transaction, replayed on a conflict
 
     public CarbonCredit buyCredits(
             Long creditId,
             Company company,
             Double creditsToBuy) {
 
+        return buyCredits(creditId, company, creditsToBuy, purchaseStrategy);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CarbonCredit buyCredits(
+            Long creditId,
+            Company company,
+            Double creditsToBuy,
+            PurchaseStrategy strategy) {
+
+        // a negative quantity would pass the supply check and mint credits
+        if (creditsToBuy == null || !(creditsToBuy > 0) || creditsToBuy.isInfinite()) {
+            throw new BusinessException("Credits to buy must be a positive number");
+        }
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return retryingTransactionExecutor.execute(() -> buy(creditId, company, creditsToBuy, strategy));
+        }
+        return buy(creditId, company, creditsToBuy, strategy);
+    }
+
+    private CarbonCredit buy(
+            Long creditId,
+            Company company,
+            Double creditsToBuy,
+            PurchaseStrategy strategy) {
+
+        CarbonCredit credit = strategy == PurchaseStrategy.CONDITIONAL_UPDATE
+                ? buyWithConditionalUpdate(creditId, company, creditsToBuy)
+                : buyWithOptimisticLock(creditId, company, creditsToBuy);
+
+        Double available = credit.getAvailableCredits();
+        String status = credit.getStatus();
+        Long version = credit.getVersion();
+        AfterCommit.run(() -> marketplaceView.balanceChanged(creditId, available, status, version));
+        return credit;
+    }
+
+    private CarbonCredit buyWithOptimisticLock(
+            Long creditId,
+            Company company,
+            Double creditsToBuy) {
+
         CarbonCredit credit = carbonCreditRepository.findById(creditId)
                 .orElseThrow(() -> new RuntimeException("Carbon credit not found"));
 
@@ -55,38 +135,49 @@ public class CarbonCreditService {
         }
 
         // Update credit balances
-        credit.setAvailableCredits(
-                credit.getAvailableCredits() - creditsToBuy
-        );
-
-        credit.setSoldCredits(
-                credit.getSoldCredits() + creditsToBuy
-        );
-
-        credit.setCompany(company);
-        credit.setUpdatedAt(LocalDateTime.now());
-
-        if (credit.getAvailableCredits() == 0) {
-            credit.setStatus("SOLD");
-        } else {
-            credit.setStatus("PARTIALLY_SOLD");
+        double available = credit.getAvailableCredits() - creditsToBuy;
+        double sold = (credit.getSoldCredits() == null ? 0.0 : credit.getSoldCredits()) + creditsToBuy;
+        String status = available == 0 ? "SOLD" : "PARTIALLY_SOLD";
+        long version = credit.getVersion() == null ? 0L : credit.getVersion();
+
+        // lost race: the caller's retry loop replays the whole purchase in a fresh
+        // transaction, a re-read in this one could see the same snapshot again
+        int updated = carbonCreditRepository.writeBalance(
+                creditId, version, available, sold, status, company, LocalDateTime.now());
+        if (updated == 0) {
+            throw new OptimisticLockingFailureException("Carbon credit " + creditId + " was changed concurrently");
         }
-
-        return carbonCreditRepository.save(credit);
+        return carbonCreditRepository.findById(creditId)
+                .orElseThrow(() -> new RuntimeException("Carbon credit not found"));
     }
 
-    //featching detail
+    private CarbonCredit buyWithConditionalUpdate(
+            Long creditId,
+            Company company,
+            Double creditsToBuy) {
 
-    public List<CarbonCredit> getCreditsByFarmer(Farmer farmer) {
-        return carbonCreditRepository.findByFarmer(farmer);
-    }
+        int updated = carbonCreditRepository.reserveCredits(
+                creditId, creditsToBuy, company, LocalDateTime.now());
 
-    public List<CarbonCredit> getCreditsByCompany(Company company) {
-        return carbonCreditRepository.findByCompany(company);
+        CarbonCredit credit = carbonCreditRepository.findById(creditId)
+                .orElseThrow(() -> new RuntimeException("Carbon credit not found"));
+
+        if (updated == 0) {
+            throw new RuntimeException("Not enough credits available");
+        }
+        return credit;
     }
 
-    public List<CarbonCredit> getAvailableCredits() {
-        return carbonCreditRepository.findByStatus("GENERATED");
+    // marketplace browsing is served from the in-memory view, not the database
+
+    public CursorPage<MarketplaceListing> searchMarketplace(String state,
+                                                            String district,
+                                                            Double minPrice,
+                                                            Double maxPrice,
+                                                            MarketplaceSort sort,
+                                                            Long cursor,
+                                                            int size) {
+        return marketplaceView.search(state, district, minPrice, maxPrice, sort, cursor, size);
     }
 }
 
@@ -0,0 +1,245 @@
+package rs.example.carbon_traders.carboncredit.service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import rs.example.carbon_traders.carboncredit.dto.MarketplaceListing;
+import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
+import rs.example.carbon_traders.carboncredit.enums.MarketplaceSort;
+import rs.example.carbon_traders.carboncredit.repository.CarbonCreditRepository;
+import rs.example.carbon_traders.common.response.CursorPage;
+
+/**
+ * In-memory read model of every lot that still has credits for sale. Lots are indexed
+ * by price and by listing time, globally and per farmer state / district, so a filtered
+ * page is a walk over one sorted set, resumed after the cursor lot. Writers (generate, buy)
+ * replace a lot's immutable listing under a lock, newest lot version wins; readers never block.
+ * A lot that sells out is dropped and leaves a small tombstone behind, kept for the most
+ * recent sold-out lots only, so late updates and cursors pointing at it still resolve.
+ */
+@Slf4j
+@Service
+public class MarketplaceView {
+
+    private static final Comparator<MarketplaceListing> BY_PRICE =
+            Comparator.comparing(MarketplaceListing::getPricePerCredit)
+                    .thenComparing(MarketplaceListing::getLotId);
+
+    private static final Comparator<MarketplaceListing> BY_CREATED =
+            Comparator.comparing(MarketplaceListing::getCreatedAt,
+                            Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(MarketplaceListing::getLotId);
+
+    private final CarbonCreditRepository carbonCreditRepository;
+
+    // latest listing per lot that still has credits for sale
+    private final Map<Long, MarketplaceListing> byLot = new ConcurrentHashMap<>();
+    private final Index all = new Index();
+    private final Map<String, Index> byRegion = new ConcurrentHashMap<>();
+
+    // sold out lots, oldest evicted first; written under the view's lock, read by search
+    private final Map<Long, SoldOut> soldOut;
+
+    public MarketplaceView(CarbonCreditRepository carbonCreditRepository,
+                           @Value("${carbon-credit.marketplace.sold-out-tombstones:10000}") int tombstones) {
+        this.carbonCreditRepository = carbonCreditRepository;
+        this.soldOut = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SoldOut> eldest) {
+                return size() > tombstones;
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<CarbonCredit> lots = carbonCreditRepository.findWithFarmerByAvailableCreditsGreaterThan(0.0);
+        lots.forEach(lot -> listed(MarketplaceListing.from(lot)));
+        log.info("Marketplace view loaded with {} lots", size());
+    }
+
+    // writes
+
+    // new lot; the listing is built inside the writing transaction, applied after commit
+    public synchronized void listed(MarketplaceListing listing) {
+        if (newer(listing.getVersion(), versionOf(listing.getLotId()))) {
+            replace(listing);
+        }
+    }
+
+    // purchase: only balance and status move, the rest of the listing is kept.
+    // after-commit callbacks of concurrent buyers can arrive in any order, so an
+    // update older than what is shown is dropped
+    public synchronized void balanceChanged(Long lotId, Double availableCredits, String status, Long version) {
+        // a sold out lot has no listing left, so its late updates end here
+        MarketplaceListing current = byLot.get(lotId);
+        if (current != null && newer(version, current.getVersion())) {
+            replace(current.withBalance(availableCredits, status, version));
+        }
+    }
+
+    // reads
+
+    // cursor is the last lot id of the previous page
+    public CursorPage<MarketplaceListing> search(String state,
+                                                 String district,
+                                                 Double minPrice,
+                                                 Double maxPrice,
+                                                 MarketplaceSort sort,
+                                                 Long cursor,
+                                                 int size) {
+
+        Index index = all;
+        if (state != null || district != null) {
+            index = byRegion.get(regionKey(state, district));
+            if (index == null) {
+                return new CursorPage<>(List.of(), null, false);
+            }
+        }
+
+        boolean priceSort = sort == MarketplaceSort.PRICE_ASC || sort == MarketplaceSort.PRICE_DESC;
+        NavigableSet<MarketplaceListing> source = priceSort ? index.byPrice : index.byCreated;
+
+        // price order lets the range become a sub-set instead of a filter
+        if (priceSort && (minPrice != null || maxPrice != null)) {
+            source = source.subSet(
+                    probe(minPrice == null ? Double.NEGATIVE_INFINITY : minPrice, Long.MIN_VALUE), true,
+                    probe(maxPrice == null ? Double.POSITIVE_INFINITY : maxPrice, Long.MAX_VALUE), true);
+        }
+        boolean descending = sort == MarketplaceSort.PRICE_DESC || sort == MarketplaceSort.NEWEST;
+        if (descending) {
+            source = source.descendingSet();
+        }
+
+        // price and listing time never change, so the cursor lot (or its tombstone)
+        // sits at the same place in the order even if it sold out since
+        if (cursor != null) {
+            MarketplaceListing after = byLot.get(cursor);
+            if (after == null) {
+                SoldOut gone = soldOut.get(cursor);
+                if (gone == null) {
+                    return new CursorPage<>(List.of(), null, false);
+                }
+                after = probe(gone.pricePerCredit(), gone.createdAt(), cursor);
+            }
+            if (!priceSort || inRange(after, minPrice, maxPrice)) {
+                source = source.tailSet(after, false);
+            } else if ((minPrice != null && after.getPricePerCredit() < minPrice) == descending) {
+                // the range sub-set rejects an outside key; here the range lies wholly before it
+                return new CursorPage<>(List.of(), null, false);
+            }
+        }
+
+        List<MarketplaceListing> rows = source.stream()
+                .filter(listing -> priceSort || inRange(listing, minPrice, maxPrice))
+                .limit(size + 1)
+                .collect(Collectors.toList());
+        return CursorPage.of(rows, size, MarketplaceListing::getLotId);
+    }
+
+    public int size() {
+        return all.byPrice.size();
+    }
+
+    // helpers
+
+    private void replace(MarketplaceListing listing) {
+        Long lotId = listing.getLotId();
+        boolean available = listing.getAvailableCredits() != null && listing.getAvailableCredits() > 0
+                && !"SOLD".equals(listing.getStatus());
+
+        MarketplaceListing previous = available ? byLot.put(lotId, listing) : byLot.remove(lotId);
+        if (previous != null) {
+            indexesOf(previous).forEach(index -> index.remove(previous));
+        }
+
+        if (!available) {
+            soldOut.put(lotId, new SoldOut(listing.getVersion(), listing.getPricePerCredit(), listing.getCreatedAt()));
+            return;
+        }
+        soldOut.remove(lotId);
+        indexesOf(listing).forEach(index -> index.add(listing));
+    }
+
+    // current version of a lot, listed or sold out; null when it was never seen
+    private Long versionOf(Long lotId) {
+        MarketplaceListing current = byLot.get(lotId);
+        if (current != null) {
+            return current.getVersion();
+        }
+        SoldOut gone = soldOut.get(lotId);
+        return gone == null ? null : gone.version();
+    }
+
+    // versions only grow; a missing one (row written before versioning) loses to any other
+    private boolean newer(Long version, Long current) {
+        return current == null || (version != null && version > current);
+    }
+
+    // a lot is reachable by state, by district and by state + district
+    private List<Index> indexesOf(MarketplaceListing listing) {
+        return List.of(
+                all,
+                byRegion.computeIfAbsent(regionKey(listing.getState(), null), key -> new Index()),
+                byRegion.computeIfAbsent(regionKey(null, listing.getDistrict()), key -> new Index()),
+                byRegion.computeIfAbsent(regionKey(listing.getState(), listing.getDistrict()), key -> new Index())
+        );
+    }
+
+    private String regionKey(String state, String district) {
+        return normalize(state) + "|" + normalize(district);
+    }
+
+    private String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private boolean inRange(MarketplaceListing listing, Double minPrice, Double maxPrice) {
+        double price = listing.getPricePerCredit();
+        return (minPrice == null || price >= minPrice) && (maxPrice == null || price <= maxPrice);
+    }
+
+    private MarketplaceListing probe(double price, long lotId) {
+        return probe(price, LocalDateTime.MIN, lotId);
+    }
+
+    private MarketplaceListing probe(double price, LocalDateTime createdAt, long lotId) {
+        return new MarketplaceListing(lotId, null, null, null, null,
+                price, null, null, null, createdAt, null);
+    }
+
+    // what is left of a sold out lot: its version, and its place in both orders
+    private record SoldOut(Long version, Double pricePerCredit, LocalDateTime createdAt) {
+    }
+
+    private static final class Index {
+
+        private final ConcurrentSkipListSet<MarketplaceListing> byPrice = new ConcurrentSkipListSet<>(BY_PRICE);
+        private final ConcurrentSkipListSet<MarketplaceListing> byCreated = new ConcurrentSkipListSet<>(BY_CREATED);
+
+        private void add(MarketplaceListing listing) {
+            byPrice.add(listing);
+            byCreated.add(listing);
+        }
+
+        private void remove(MarketplaceListing listing) {
+            byPrice.remove(listing);
+            byCreated.remove(listing);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package rs.example.carbon_traders.common.exception;
+
+// a request that cannot be carried out as asked (unknown lot, not enough supply); maps to 400
+public class BusinessException extends RuntimeException {
+
+    public BusinessException(String message) {
+        super(message);
+    }
+
+    public BusinessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
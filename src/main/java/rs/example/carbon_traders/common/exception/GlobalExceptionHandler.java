@@ -9,6 +9,17 @@ import rs.example.carbon_traders.common.response.ApiResponse;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // bounded pool or queue is full
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceBusy(
+            ServiceBusyException ex) {
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     // handel runtime exception
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiResponse<Object>> handleRuntimeException(
@@ -0,0 +1,11 @@
+package rs.example.carbon_traders.common.exception;
+
+// a bounded resource (worker pool, queue) is full; the client should retry later
+public class ServiceBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
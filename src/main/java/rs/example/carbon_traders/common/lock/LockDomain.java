@@ -0,0 +1,7 @@
+package rs.example.carbon_traders.common.lock;
+
+public enum LockDomain {
+
+    CARBON_CREDIT    // keyed by CarbonCredit.id
+
+}
@@ -0,0 +1,52 @@
+package rs.example.carbon_traders.common.ratelimit;
+
+// requests are limited per principal within each class; defaults are overridden under security.rate-limit.<key>
+public enum EndpointClass {
+
+    TRADING("trading", 5, 20),          // writes to /api/credits, /api/company, /api/trading
+    AI("ai", 0.2, 5),                   // writes to /api/ai, each one is model inference
+    BLOCKCHAIN("blockchain", 1, 10),    // /api/v1/blockchain, every call reaches the RPC node
+    READ_ONLY("read-only", 50, 100);    // any other GET
+
+    private final String key;
+    private final double defaultRatePerSecond;
+    private final int defaultBurst;
+
+    EndpointClass(String key, double defaultRatePerSecond, int defaultBurst) {
+        this.key = key;
+        this.defaultRatePerSecond = defaultRatePerSecond;
+        this.defaultBurst = defaultBurst;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public double defaultRatePerSecond() {
+        return defaultRatePerSecond;
+    }
+
+    public int defaultBurst() {
+        return defaultBurst;
+    }
+
+    // null: not limited (auth endpoints, profile and land writes)
+    public static EndpointClass classify(String method, String path) {
+        boolean read = "GET".equals(method) || "HEAD".equals(method);
+
+        if (path.startsWith("/api/v1/blockchain/")) {
+            return BLOCKCHAIN;
+        }
+        if (path.startsWith("/api/ai/")) {
+            // job polling and SSE streams are cheap, only submissions run the model
+            return read ? READ_ONLY : AI;
+        }
+        if (read) {
+            return READ_ONLY;
+        }
+        if (path.startsWith("/api/credits/") || path.startsWith("/api/company/") || path.startsWith("/api/trading/")) {
+            return TRADING;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,125 @@
+package rs.example.carbon_traders.common.ratelimit;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token buckets per principal and EndpointClass, lock-free. A bucket is a single
+ * AtomicLong holding the instant it will be full again (the GCRA form of a token
+ * bucket): a request moves that instant forward by one interval, and is refused when
+ * it would land more than burst intervals ahead of now. No allocation or lock on the
+ * hot path, one CAS per allowed request.
+ *
+ * Memory is bounded by max-buckets. Full buckets hold no state worth keeping and are
+ * swept on a schedule, never on the request thread; while the map is full, new
+ * principals share one overflow bucket per class until a sweep frees space.
+ *
+ * Metrics: ratelimit.buckets (gauge), ratelimit.rejected tagged with class.
+ */
+@Component
+public class RateLimiter {
+
+    private final Map<EndpointClass, Limit> limits = new EnumMap<>(EndpointClass.class);
+    private final AtomicInteger bucketCount = new AtomicInteger();
+    private final int maxBuckets;
+
+    public RateLimiter(MeterRegistry meterRegistry, Environment environment) {
+        this.maxBuckets = environment.getProperty("security.rate-limit.max-buckets", Integer.class, 100_000);
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "security.rate-limit." + endpointClass.key();
+            double ratePerSecond = environment.getProperty(prefix + ".rate-per-second", Double.class,
+                    endpointClass.defaultRatePerSecond());
+            int burst = environment.getProperty(prefix + ".burst", Integer.class, endpointClass.defaultBurst());
+
+            Counter rejected = Counter.builder("ratelimit.rejected")
+                    .tag("class", endpointClass.key())
+                    .register(meterRegistry);
+            limits.put(endpointClass, new Limit(ratePerSecond, burst, rejected));
+        }
+        Gauge.builder("ratelimit.buckets", bucketCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    // 0 when the request may proceed, otherwise nanoseconds until it would be allowed
+    public long tryAcquire(String principal, EndpointClass endpointClass) {
+        Limit limit = limits.get(endpointClass);
+        long now = System.nanoTime();
+
+        AtomicLong bucket = limit.buckets.get(principal);
+        if (bucket == null) {
+            bucket = newBucket(limit, principal, now);
+        }
+
+        while (true) {
+            long fullAt = bucket.get();
+            long next = (fullAt - now > 0 ? fullAt : now) + limit.intervalNanos;
+            long wait = next - now - limit.toleranceNanos;
+            if (wait > 0) {
+                limit.rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int bucketCount() {
+        return bucketCount.get();
+    }
+
+    // a caller may still hold a swept bucket; its next request just starts a full one
+    @Scheduled(fixedDelayString = "${security.rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        for (Limit limit : limits.values()) {
+            limit.buckets.values().removeIf(bucket -> {
+                if (now - bucket.get() >= 0) {
+                    bucketCount.decrementAndGet();
+                    return true;
+                }
+                return false;
+            });
+        }
+    }
+
+    private AtomicLong newBucket(Limit limit, String principal, long now) {
+        if (bucketCount.get() >= maxBuckets) {
+            return limit.overflow;
+        }
+
+        AtomicLong created = new AtomicLong(now);
+        AtomicLong existing = limit.buckets.putIfAbsent(principal, created);
+        if (existing != null) {
+            return existing;
+        }
+        bucketCount.incrementAndGet();
+        return created;
+    }
+
+    private static final class Limit {
+
+        private final long intervalNanos;
+        // how far ahead of now the bucket may run: burst requests back to back
+        private final long toleranceNanos;
+        private final Counter rejected;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+
+        private Limit(double ratePerSecond, int burst, Counter rejected) {
+            this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+            this.toleranceNanos = intervalNanos * Math.max(1, burst);
+            this.rejected = rejected;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package rs.example.carbon_traders.common.response;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// one page of a keyset-paginated listing, pass nextCursor back to get the following page
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 100;
+    public static final int MAX_SIZE = 500;
+
+    private List<T> items;
+    private Long nextCursor;
+    private boolean hasMore;
+
+    // rows must be fetched with size + 1 so we know whether another page exists
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> sortKey) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, false);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, sortKey.apply(items.get(size - 1)), true);
+    }
+
+    public static int clampSize(int size) {
+        if (size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+}
@@ -0,0 +1,13 @@
+package rs.example.carbon_traders.common.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// handle to stored content: the SHA-256 of the bytes is the blob's address
+@Getter
+@AllArgsConstructor
+public class BlobRef {
+
+    private final String digest;
+    private final long size;
+}
@@ -0,0 +1,40 @@
+package rs.example.carbon_traders.common.storage;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Content-addressed, deduplicating storage for uploads. A blob is named by the SHA-256
+ * of its bytes, so storing the same content twice keeps one copy and takes a second
+ * reference. {@link #release} drops a reference and deletes the blob at zero.
+ */
+public interface BlobStore {
+
+    // stores the content (or finds an identical blob) and takes one reference to it
+    default BlobRef put(InputStream content) {
+        return put(content, Long.MAX_VALUE);
+    }
+
+    // same, failing as soon as more than maxBytes have been read
+    BlobRef put(InputStream content, long maxBytes);
+
+    // an empty file on the store's volume; write to it, then adopt() it
+    Path stagingFile();
+
+    // takes over a fully written staging file (renamed, not copied), hashing it once
+    BlobRef adopt(Path stagedFile);
+
+    InputStream open(String digest);
+
+    // a readable file for consumers that need a path, e.g. the python workers
+    Path localPath(String digest);
+
+    boolean exists(String digest);
+
+    long size(String digest);
+
+    void retain(String digest);
+
+    // returns the references left; 0 means the blob was deleted
+    int release(String digest);
+}
@@ -0,0 +1,136 @@
+package rs.example.carbon_traders.common.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import rs.example.carbon_traders.common.util.HashUtil;
+
+/**
+ * Heap-backed blob store for tests (storage.type=memory). Same dedup and reference
+ * counting as the local store; localPath spills a blob to a temp file on first use.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "memory")
+public class InMemoryBlobStore implements BlobStore {
+
+    private final Map<String, Blob> blobs = new ConcurrentHashMap<>();
+
+    @Override
+    public BlobRef put(InputStream content, long maxBytes) {
+        byte[] bytes;
+        try (content) {
+            bytes = content.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxBytes + 1));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        }
+        if (bytes.length > maxBytes) {
+            throw new RuntimeException("File is larger than " + maxBytes + " bytes");
+        }
+        return store(bytes);
+    }
+
+    @Override
+    public Path stagingFile() {
+        try {
+            return Files.createTempFile("staged-", "");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        }
+    }
+
+    @Override
+    public BlobRef adopt(Path stagedFile) {
+        try {
+            return store(Files.readAllBytes(stagedFile));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        } finally {
+            stagedFile.toFile().delete();
+        }
+    }
+
+    private BlobRef store(byte[] bytes) {
+        String digest = HashUtil.sha256Hex(bytes);
+        blobs.compute(digest, (key, blob) -> blob == null ? new Blob(bytes, 1, null) : blob.withRefs(blob.refs + 1));
+        return new BlobRef(digest, bytes.length);
+    }
+
+    @Override
+    public InputStream open(String digest) {
+        return new ByteArrayInputStream(existing(digest).bytes);
+    }
+
+    @Override
+    public Path localPath(String digest) {
+        return blobs.compute(digest, (key, blob) -> {
+            if (blob == null) {
+                throw new RuntimeException("File not found");
+            }
+            if (blob.spilled != null) {
+                return blob;
+            }
+            try {
+                Path file = Files.createTempFile("blob-", "");
+                Files.write(file, blob.bytes);
+                file.toFile().deleteOnExit();
+                return new Blob(blob.bytes, blob.refs, file);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to store file", e);
+            }
+        }).spilled;
+    }
+
+    @Override
+    public boolean exists(String digest) {
+        return blobs.containsKey(digest);
+    }
+
+    @Override
+    public long size(String digest) {
+        return existing(digest).bytes.length;
+    }
+
+    @Override
+    public void retain(String digest) {
+        if (blobs.computeIfPresent(digest, (key, blob) -> blob.withRefs(blob.refs + 1)) == null) {
+            throw new RuntimeException("File not found");
+        }
+    }
+
+    @Override
+    public int release(String digest) {
+        Blob left = blobs.computeIfPresent(digest, (key, blob) -> {
+            if (blob.refs > 1) {
+                return blob.withRefs(blob.refs - 1);
+            }
+            if (blob.spilled != null) {
+                blob.spilled.toFile().delete();
+            }
+            return null;
+        });
+        return left == null ? 0 : left.refs;
+    }
+
+    private Blob existing(String digest) {
+        Blob blob = blobs.get(digest);
+        if (blob == null) {
+            throw new RuntimeException("File not found");
+        }
+        return blob;
+    }
+
+    private record Blob(byte[] bytes, int refs, Path spilled) {
+
+        private Blob withRefs(int refs) {
+            return new Blob(bytes, refs, spilled);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package rs.example.carbon_traders.common.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import rs.example.carbon_traders.common.util.HashUtil;
+
+/**
+ * Filesystem blob store. Layout is root/ab/cd/abcd... (two hex levels, 65536 leaf
+ * directories) so no directory grows without bound; each blob has a small .refs file
+ * next to it holding its reference count. Content is written to root/tmp first and
+ * renamed into place, so a blob path either does not exist or is complete.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tmp;
+    private final long staleTmpMillis;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public LocalBlobStore(@Value("${storage.local.root:uploads}") String root,
+                          @Value("${storage.local.stale-tmp-ms:86400000}") long staleTmpMillis) {
+        this.root = Paths.get(root);
+        this.tmp = this.root.resolve("tmp");
+        this.staleTmpMillis = staleTmpMillis;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    // old files in tmp are from writes that never finished. Recent ones are left alone:
+    // another instance sharing the root may be writing them right now
+    @PostConstruct
+    public void init() {
+        try {
+            Files.createDirectories(tmp);
+            long cutoff = System.currentTimeMillis() - staleTmpMillis;
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(tmp)) {
+                for (Path leftover : leftovers) {
+                    try {
+                        if (Files.getLastModifiedTime(leftover).toMillis() < cutoff) {
+                            deleteQuietly(leftover);
+                        }
+                    } catch (NoSuchFileException e) {
+                        // renamed into place by the instance that wrote it
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Upload store not writable: " + root, e);
+        }
+    }
+
+    // channel copy through one direct buffer: each chunk is hashed and written as it
+    // arrives, so the upload is never held in memory or re-read
+    @Override
+    public BlobRef put(InputStream content, long maxBytes) {
+        Path temp = null;
+        try {
+            temp = stagingFile();
+            MessageDigest digest = HashUtil.sha256();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long written = 0;
+
+            try (ReadableByteChannel in = Channels.newChannel(content);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    written += buffer.remaining();
+                    if (written > maxBytes) {
+                        throw new RuntimeException("File is larger than " + maxBytes + " bytes");
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            return commit(temp, HashUtil.hex(digest));
+
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public Path stagingFile() {
+        try {
+            return Files.createTempFile(tmp, "upload", ".part");
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        }
+    }
+
+    @Override
+    public BlobRef adopt(Path stagedFile) {
+        try {
+            MessageDigest digest = HashUtil.sha256();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            try (FileChannel in = FileChannel.open(stagedFile, StandardOpenOption.READ)) {
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    digest.update(buffer);
+                    buffer.clear();
+                }
+            }
+            return commit(stagedFile, HashUtil.hex(digest));
+
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        } finally {
+            deleteQuietly(stagedFile);
+        }
+    }
+
+    // moves a fully written temp file into place (or leaves it for the caller to delete
+    // when the content is already stored) and takes a reference
+    private BlobRef commit(Path temp, String digest) throws IOException {
+        Path target = blobPath(digest);
+        synchronized (lockFor(digest)) {
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // identical content landed first, keep that copy
+                }
+            }
+            writeRefs(digest, readRefs(digest) + 1);
+            return new BlobRef(digest, Files.size(target));
+        }
+    }
+
+    @Override
+    public InputStream open(String digest) {
+        try {
+            return Files.newInputStream(existing(digest));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file", e);
+        }
+    }
+
+    @Override
+    public Path localPath(String digest) {
+        return existing(digest);
+    }
+
+    @Override
+    public boolean exists(String digest) {
+        return Files.exists(blobPath(digest));
+    }
+
+    @Override
+    public long size(String digest) {
+        try {
+            return Files.size(existing(digest));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file", e);
+        }
+    }
+
+    @Override
+    public void retain(String digest) {
+        synchronized (lockFor(digest)) {
+            existing(digest);
+            writeRefs(digest, readRefs(digest) + 1);
+        }
+    }
+
+    @Override
+    public int release(String digest) {
+        synchronized (lockFor(digest)) {
+            int refs = Math.max(0, readRefs(digest) - 1);
+            if (refs > 0) {
+                writeRefs(digest, refs);
+                return refs;
+            }
+            try {
+                Files.deleteIfExists(blobPath(digest));
+                Files.deleteIfExists(refsPath(digest));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete file", e);
+            }
+            return 0;
+        }
+    }
+
+    // helpers
+
+    Path blobPath(String digest) {
+        if (digest == null || digest.length() < 4 || !digest.matches("[0-9a-f]+")) {
+            throw new RuntimeException("Invalid file id");
+        }
+        return root.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    private Path existing(String digest) {
+        Path path = blobPath(digest);
+        if (!Files.exists(path)) {
+            throw new RuntimeException("File not found");
+        }
+        return path;
+    }
+
+    private Path refsPath(String digest) {
+        return blobPath(digest).resolveSibling(digest + ".refs");
+    }
+
+    private int readRefs(String digest) {
+        try {
+            return Integer.parseInt(Files.readString(refsPath(digest), StandardCharsets.UTF_8).trim());
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Unreadable reference count for blob {}, treating as 1", digest, e);
+            return 1;
+        }
+    }
+
+    private void writeRefs(String digest, int refs) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(tmp, "refs", ".part");
+            Files.writeString(temp, Integer.toString(refs), StandardCharsets.UTF_8);
+            Files.move(temp, refsPath(digest), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    private Object lockFor(String digest) {
+        return locks[Math.floorMod(digest.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete temp file {}", path, e);
+        }
+    }
+}
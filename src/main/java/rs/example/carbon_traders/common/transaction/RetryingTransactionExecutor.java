@@ -0,0 +1,59 @@
+package rs.example.carbon_traders.common.transaction;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rs.example.carbon_traders.common.exception.ServiceBusyException;
+
+/**
+ * Runs an action in a fresh transaction and replays it when an optimistic lock
+ * conflict is detected, with bounded attempts and jittered exponential backoff.
+ * Callers must not already be inside a transaction, otherwise a conflict would
+ * only mark the outer one rollback-only.
+ */
+@Component
+public class RetryingTransactionExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public RetryingTransactionExecutor(PlatformTransactionManager transactionManager,
+                                       @Value("${carbon-credit.purchase.max-attempts:5}") int maxAttempts,
+                                       @Value("${carbon-credit.purchase.backoff-ms:5}") long backoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw new ServiceBusyException("Carbon credit is busy, please retry");
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = backoffMillis << Math.min(attempt - 1, 6);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Purchase interrupted");
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package rs.example.carbon_traders.company.controller;
 
-import java.util.List;
+import java.security.Principal;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import rs.example.carbon_traders.common.response.CursorPage;
+import rs.example.carbon_traders.company.dto.CompanySummary;
 import rs.example.carbon_traders.company.entity.Company;
 import rs.example.carbon_traders.company.service.CompanyService;
+import rs.example.carbon_traders.transaction.dto.TransactionSummary;
+import rs.example.carbon_traders.transaction.service.TransactionService;
 import rs.example.carbon_traders.user.entity.User;
 
 @RestController
@@ -14,9 +18,12 @@ import rs.example.carbon_traders.user.entity.User;
 public class CompanyController {
 
     private final CompanyService companyService;
+    private final TransactionService transactionService;
 
-    public CompanyController(CompanyService companyService) {
+    public CompanyController(CompanyService companyService,
+                             TransactionService transactionService) {
         this.companyService = companyService;
+        this.transactionService = transactionService;
     }
 
     @PostMapping("/create")
@@ -39,8 +46,21 @@ public class CompanyController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<Company>> getAllCompanies() {
-        return ResponseEntity.ok(companyService.getAllCompanies());
+    public ResponseEntity<CursorPage<CompanySummary>> getCompanies(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(companyService.getCompanies(cursor, size));
+    }
+
+    // purchase history of the logged-in company, newest first
+    @GetMapping("/transactions")
+    public ResponseEntity<CursorPage<TransactionSummary>> getMyTransactions(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int size,
+            Principal principal) {
+        return ResponseEntity.ok(
+                transactionService.getTransactionsByCompany(principal.getName(), cursor, size)
+        );
     }
 }
 
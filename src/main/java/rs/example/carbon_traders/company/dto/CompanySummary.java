@@ -0,0 +1,21 @@
+package rs.example.carbon_traders.company.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// listing row for company tables, filled by a JPQL constructor expression
+@Getter
+@AllArgsConstructor
+public class CompanySummary {
+
+    private Long id;
+    private String companyName;
+    private String registrationNumber;
+    private String industryType;
+    private Double totalCreditsPurchased;
+    private boolean verified;
+    private LocalDateTime createdAt;
+    private String email;
+}
@@ -1,10 +1,16 @@
 package rs.example.carbon_traders.company.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import rs.example.carbon_traders.company.dto.CompanySummary;
 import rs.example.carbon_traders.company.entity.Company;
 import rs.example.carbon_traders.user.entity.User;
 
@@ -15,6 +21,30 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
 
     boolean existsByUser(User user);
 
+    // company profile id of a logged-in user, empty for non-companies
+    @Query("SELECT c.id FROM Company c WHERE c.user.email = :email")
+    Optional<Long> findIdByUserEmail(@Param("email") String email);
+
     boolean existsByRegistrationNumber(String registrationNumber);
+
+    // dashboard stats reconciliation
+    long countByVerified(boolean verified);
+
+    @Query("SELECT COALESCE(SUM(c.totalCreditsPurchased), 0) FROM Company c")
+    double sumTotalCreditsPurchased();
+
+    // purchase paths add to the running total in their own transaction, no read-modify-write
+    @Modifying
+    @Query("UPDATE Company c SET c.totalCreditsPurchased = COALESCE(c.totalCreditsPurchased, 0) + :credits "
+            + "WHERE c.id = :companyId")
+    int addPurchasedCredits(@Param("companyId") Long companyId, @Param("credits") Double credits);
+
+    // keyset page on the primary key, one indexed range scan per page
+    @Query("SELECT new rs.example.carbon_traders.company.dto.CompanySummary("
+            + "c.id, c.companyName, c.registrationNumber, c.industryType, "
+            + "c.totalCreditsPurchased, c.verified, c.createdAt, u.email) "
+            + "FROM Company c JOIN c.user u "
+            + "WHERE c.id > :after ORDER BY c.id")
+    List<CompanySummary> findSummariesAfter(@Param("after") Long after, Pageable page);
 }
 
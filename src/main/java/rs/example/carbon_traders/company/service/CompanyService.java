@@ -3,9 +3,13 @@ package rs.example.carbon_traders.company.service;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import rs.example.carbon_traders.admin.service.PlatformStatsService;
+import rs.example.carbon_traders.common.response.CursorPage;
+import rs.example.carbon_traders.company.dto.CompanySummary;
 import rs.example.carbon_traders.company.entity.Company;
 import rs.example.carbon_traders.company.repository.CompanyRepository;
 import rs.example.carbon_traders.user.entity.User;
@@ -15,9 +19,12 @@ import rs.example.carbon_traders.user.entity.User;
 public class CompanyService {
 
     private final CompanyRepository companyRepository;
+    private final PlatformStatsService platformStatsService;
 
-    public CompanyService(CompanyRepository companyRepository) {
+    public CompanyService(CompanyRepository companyRepository,
+                          PlatformStatsService platformStatsService) {
         this.companyRepository = companyRepository;
+        this.platformStatsService = platformStatsService;
     }
 
     public Company createCompanyProfile(Company company, User user) {
@@ -34,7 +41,9 @@ public class CompanyService {
         company.setCreatedAt(LocalDateTime.now());
         company.setVerified(false);
 
-        return companyRepository.save(company);
+        Company saved = companyRepository.save(company);
+        platformStatsService.companyRegistered();
+        return saved;
     }
 
     public Company getCompanyByUser(User user) {
@@ -42,28 +51,22 @@ public class CompanyService {
                 .orElseThrow(() -> new RuntimeException("Company profile not found"));
     }
 
-    public List<Company> getAllCompanies() {
-        return companyRepository.findAll();
+    // keyset paginated, cursor is the last company id of the previous page
+    @Transactional(readOnly = true)
+    public CursorPage<CompanySummary> getCompanies(Long cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<CompanySummary> rows = companyRepository.findSummariesAfter(
+                cursor == null ? 0L : cursor, PageRequest.ofSize(pageSize + 1));
+        return CursorPage.of(rows, pageSize, CompanySummary::getId);
     }
 
     public Company verifyCompany(Long companyId) {
         Company company = companyRepository.findById(companyId)
                 .orElseThrow(() -> new RuntimeException("Company not found"));
 
+        platformStatsService.companyVerificationChanged(company.isVerified(), true);
         company.setVerified(true);
         company.setVerifiedAt(LocalDateTime.now());
         return companyRepository.save(company);
     }
-
-    public void addPurchasedCredits(Long companyId, Double credits) {
-        Company company = companyRepository.findById(companyId)
-                .orElseThrow(() -> new RuntimeException("Company not found"));
-
-        company.setTotalCreditsPurchased(
-                company.getTotalCreditsPurchased() + credits
-        );
-
-        companyRepository.save(company);
-    }
 }
-
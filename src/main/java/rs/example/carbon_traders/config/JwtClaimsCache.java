@@ -0,0 +1,101 @@
+package rs.example.carbon_traders.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tokens whose signature was already verified, keyed by a SHA-256 digest of the raw
+ * token so the bearer string itself is never kept in memory. An entry never outlives
+ * the token's own {@code exp}, so a cache hit is exactly as valid as a fresh parse.
+ */
+@Component
+public class JwtClaimsCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Map<String, VerifiedToken> tokens = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long ttlMs;
+
+    public JwtClaimsCache(@Value("${security.jwt.cache.max-entries:100000}") int maxEntries,
+                          @Value("${security.jwt.cache.ttl-ms:300000}") long ttlMs) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+    }
+
+    public VerifiedToken get(String token) {
+        VerifiedToken verified = tokens.get(digest(token));
+        if (verified == null || verified.cachedUntil() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return verified;
+    }
+
+    public VerifiedToken put(String token, Claims claims) {
+        long now = System.currentTimeMillis();
+        long expiresAt = claims.getExpiration() == null ? now : claims.getExpiration().getTime();
+
+        VerifiedToken verified = new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                authoritiesOf(claims.get("role", String.class)),
+                Math.min(expiresAt, now + ttlMs));
+
+        // full: serve this one uncached, expired entries are left to the scheduled sweep
+        // so no request thread pays for a scan of the whole map
+        if (tokens.size() < maxEntries) {
+            tokens.put(digest(token), verified);
+        }
+        return verified;
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.cache.evict-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        tokens.values().removeIf(verified -> verified.cachedUntil() <= now);
+    }
+
+    // helpers
+
+    // generateToken stores the first authority as-is; hasRole() checks need the ROLE_ prefix
+    private List<GrantedAuthority> authoritiesOf(String role) {
+        if (role == null || role.isBlank()) {
+            return List.of();
+        }
+        String authority = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+        return List.of(new SimpleGrantedAuthority(authority));
+    }
+
+    private String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    public record VerifiedToken(String jti,
+                                String username,
+                                List<GrantedAuthority> authorities,
+                                long cachedUntil) {
+    }
+}
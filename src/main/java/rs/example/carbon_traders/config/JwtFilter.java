@@ -1,5 +1,6 @@
 package rs.example.carbon_traders.config;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,12 +9,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import rs.example.carbon_traders.auth.service.TokenRevocationList;
+import rs.example.carbon_traders.util.JwtUtil;
+
 import java.io.IOException;
 
 @Component
@@ -22,7 +24,10 @@ public class JwtFilter extends OncePerRequestFilter{
     private JwtUtil jwtUtil;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private JwtClaimsCache claimsCache;
+
+    @Autowired
+    private TokenRevocationList revocationList;
 
     @Override
     protected void doFilterInternal(
@@ -34,28 +39,34 @@ public class JwtFilter extends OncePerRequestFilter{
         // 1️ Read Authorization header
         final String authHeader = request.getHeader("Authorization");
 
-        String jwtToken = null;
-        String username = null;
 // 2️ Check Bearer token
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwtToken = authHeader.substring(7);
-            username = jwtUtil.extractUsername(jwtToken);
-        }
-
-        // 3 Validate token & authenticate
-        if (username != null &&
-                SecurityContextHolder.getContext().getAuthentication() == null) {
-
-            UserDetails userDetails =
-                    userDetailsService.loadUserByUsername(username);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+
+            String jwtToken = authHeader.substring(7);
+
+            // 3 Validate token: cached verification, else one parse (signature + exp)
+            JwtClaimsCache.VerifiedToken verified = claimsCache.get(jwtToken);
+            if (verified == null) {
+                try {
+                    verified = claimsCache.put(jwtToken, jwtUtil.parseClaims(jwtToken));
+                } catch (JwtException | IllegalArgumentException e) {
+                    // bad or expired token: continue unauthenticated
+                    verified = null;
+                }
+            }
 
-            if (jwtUtil.isTokenValid(jwtToken, userDetails)) {
+            // 4 Authenticate from the token's own subject and role: access tokens are
+            //   short-lived, so only an explicit revocation (logout) is checked per request;
+            //   account state is checked when they are refreshed
+            if (verified != null && verified.username() != null
+                    && !revocationList.isRevoked(verified.jti())) {
 
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
-                                userDetails,
+                                verified.username(),
                                 null,
-                                userDetails.getAuthorities()
+                                verified.authorities()
                         );
 
                 authToken.setDetails(
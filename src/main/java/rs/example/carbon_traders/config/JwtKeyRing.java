@@ -0,0 +1,75 @@
+package rs.example.carbon_traders.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * HMAC signing keys by key id, from security.jwt.keys ("kid:secret,kid:secret").
+ * Tokens are signed with active-kid and carry it in their header, so rotating is
+ * adding a key, switching active-kid, and dropping the old key once the last token
+ * signed with it has expired (one access-token-ttl-ms later).
+ * Without a ring the single security.jwt.secret is used under kid "default".
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    // HS256 wants at least as many key bytes as the hash output
+    private static final int MIN_KEY_BYTES = 32;
+
+    private final Map<String, byte[]> keys = new LinkedHashMap<>();
+    private final String activeKid;
+
+    public JwtKeyRing(@Value("${security.jwt.keys:}") String ring,
+                      @Value("${security.jwt.active-kid:}") String activeKid,
+                      @Value("${security.jwt.secret:}") String secret) {
+        for (String entry : ring.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalStateException("security.jwt.keys entries must be kid:secret");
+            }
+            keys.put(entry.substring(0, colon).trim(), keyBytes(entry.substring(colon + 1).trim()));
+        }
+        if (keys.isEmpty() && !secret.isBlank()) {
+            keys.put("default", keyBytes(secret));
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No JWT signing key configured");
+        }
+
+        this.activeKid = activeKid.isBlank() ? keys.keySet().iterator().next() : activeKid;
+        if (!keys.containsKey(this.activeKid)) {
+            throw new IllegalStateException("security.jwt.active-kid " + this.activeKid + " is not in the key ring");
+        }
+        log.info("JWT key ring loaded: {} keys, signing with {}", keys.size(), this.activeKid);
+    }
+
+    public String activeKid() {
+        return activeKid;
+    }
+
+    public byte[] activeKey() {
+        return keys.get(activeKid);
+    }
+
+    // null for a kid that was never configured or has been retired
+    public byte[] key(String kid) {
+        return kid == null ? null : keys.get(kid);
+    }
+
+    private static byte[] keyBytes(String secret) {
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MIN_KEY_BYTES) {
+            throw new IllegalStateException("JWT secrets must be at least " + MIN_KEY_BYTES + " bytes");
+        }
+        return bytes;
+    }
+}
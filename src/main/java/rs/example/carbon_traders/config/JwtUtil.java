@@ -1,25 +1,58 @@
 package rs.example.carbon_traders.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import rs.example.carbon_traders.config.JwtKeyRing;
+
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
-    // master key
-    private final String SECRET_KEY = "carbon_credit_secret_key_123";
-
-    // Token validity (1 day)
-    private final long JWT_EXPIRATION_TIME = 1000 * 60 * 60 * 24;
+    // signing keys by kid, see JwtKeyRing
+    private final JwtKeyRing keyRing;
+
+    // access tokens are trusted on their claims alone, so they live minutes, not days
+    private final long accessTokenTtlMs;
+
+    private final String issuer;
+
+    private final SigningKeyResolverAdapter keyResolver;
+
+    public JwtUtil(JwtKeyRing keyRing,
+                   @Value("${security.jwt.access-token-ttl-ms:900000}") long accessTokenTtlMs,
+                   @Value("${security.jwt.issuer:carbon-traders-platform}") String issuer) {
+        this.keyRing = keyRing;
+        this.accessTokenTtlMs = accessTokenTtlMs;
+        this.issuer = issuer;
+
+        // pick the key by the token's kid; anything but HS256 or an unknown kid is rejected
+        this.keyResolver = new SigningKeyResolverAdapter() {
+            // jjwt 0.9 declares the header raw; JwsHeader<?> would not override it
+            @Override
+            @SuppressWarnings("rawtypes")
+            public byte[] resolveSigningKeyBytes(JwsHeader header, Claims claims) {
+                byte[] key = keyRing.key(header.getKeyId());
+                if (key == null || !SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())) {
+                    throw new SignatureException("Unknown signing key " + header.getKeyId());
+                }
+                return key;
+            }
+        };
+    }
 
         //  TOKEN GENERATION
 
@@ -36,19 +69,33 @@ public class JwtUtil {
         return createToken(claims, userDetails.getUsername());
     }
 
+    // login and refresh: subject and role come from the principal or the refreshed user
+    public String generateToken(String username, String role) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("role", role);
+        return createToken(claims, username);
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
 
+        long now = System.currentTimeMillis();
+
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.activeKid())
                 .setClaims(claims)
                 .setSubject(subject) // username
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(
-                        new Date(System.currentTimeMillis() + JWT_EXPIRATION_TIME)
-                )
-                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .setId(UUID.randomUUID().toString()) // jti, for audit trails
+                .setIssuer(issuer)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + accessTokenTtlMs))
+                .signWith(SignatureAlgorithm.HS256, keyRing.activeKey())
                 .compact();
     }
 
+    public long getAccessTokenTtlMs() {
+        return accessTokenTtlMs;
+    }
+
     //  TOKEN VALIDATION
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
@@ -79,9 +126,15 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    // verifies signature and expiry once; callers that need several claims parse here
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     private Claims extractAllClaims(String token) {
         return Jwts.parser()
-                .setSigningKey(SECRET_KEY)
+                .setSigningKeyResolver(keyResolver)
+                .requireIssuer(issuer)
                 .parseClaimsJws(token)
                 .getBody();
     }
@@ -0,0 +1,76 @@
+package rs.example.carbon_traders.config;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import rs.example.carbon_traders.common.ratelimit.EndpointClass;
+import rs.example.carbon_traders.common.ratelimit.RateLimiter;
+import rs.example.carbon_traders.common.response.ApiResponse;
+
+// runs right after JwtFilter: limits authenticated principals per endpoint class, 429 + Retry-After when over
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           ObjectMapper objectMapper,
+                           @Value("${security.rate-limit.enabled:true}") boolean enabled) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        // anonymous requests are either /api/auth (login has its own admission control) or get 401/403 anyway
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        EndpointClass endpointClass = enabled && authentication != null
+                && !(authentication instanceof AnonymousAuthenticationToken)
+                ? EndpointClass.classify(request.getMethod(), request.getRequestURI())
+                : null;
+
+        if (endpointClass != null) {
+            long waitNanos = rateLimiter.tryAcquire(authentication.getName(), endpointClass);
+            if (waitNanos > 0) {
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        // Retry-After is whole seconds, round up so an immediate retry is not refused again
+        long retryAfter = Math.max(1, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many requests, retry in " + retryAfter + "s"));
+    }
+}
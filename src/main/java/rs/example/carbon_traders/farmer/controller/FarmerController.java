@@ -6,11 +6,14 @@ import java.util.List;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import rs.example.carbon_traders.common.response.CursorPage;
 import rs.example.carbon_traders.farmer.entity.Crop;
 import rs.example.carbon_traders.farmer.entity.Farmer;
 import rs.example.carbon_traders.farmer.entity.Land;
 import rs.example.carbon_traders.farmer.entity.SoilReport;
 import rs.example.carbon_traders.farmer.service.FarmerService;
+import rs.example.carbon_traders.transaction.dto.TransactionSummary;
+import rs.example.carbon_traders.transaction.service.TransactionService;
 
 @RestController
 @RequestMapping("/api/farmer")
@@ -18,9 +21,12 @@ import rs.example.carbon_traders.farmer.service.FarmerService;
 public class FarmerController {
 
     private final FarmerService farmerService;
+    private final TransactionService transactionService;
 
-    public FarmerController(FarmerService farmerService) {
+    public FarmerController(FarmerService farmerService,
+                            TransactionService transactionService) {
         this.farmerService = farmerService;
+        this.transactionService = transactionService;
     }
 
 //       CREATE FARMER PROFILE
@@ -108,5 +114,16 @@ public class FarmerController {
         return ResponseEntity.ok(
                 farmerService.getSoilReports(principal.getName()));
     }
+
+//       VIEW MY SALES (newest first, pass nextCursor for the next page)
+    @GetMapping("/transactions")
+    public ResponseEntity<CursorPage<TransactionSummary>> getMyTransactions(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int size,
+            Principal principal) {
+
+        return ResponseEntity.ok(
+                transactionService.getTransactionsByFarmer(principal.getName(), cursor, size));
+    }
 }
 
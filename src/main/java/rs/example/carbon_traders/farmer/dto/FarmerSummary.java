@@ -0,0 +1,18 @@
+package rs.example.carbon_traders.farmer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// listing row for the admin farmer table, filled by a JPQL constructor expression
+@Getter
+@AllArgsConstructor
+public class FarmerSummary {
+
+    private Long id;
+    private String fullName;
+    private String email;
+    private String village;
+    private String district;
+    private String state;
+    private boolean verified;
+}
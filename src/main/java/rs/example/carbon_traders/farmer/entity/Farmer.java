@@ -1,11 +1,13 @@
 package rs.example.carbon_traders.farmer.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
 import rs.example.carbon_traders.user.entity.User;
 
 @Entity
 @Table(name = "farmers")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Farmer {
 
     @Id
@@ -13,7 +15,7 @@ public class Farmer {
     private Long id;
 
     // One farmer = one user account
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
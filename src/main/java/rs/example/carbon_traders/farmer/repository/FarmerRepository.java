@@ -1,10 +1,15 @@
 package rs.example.carbon_traders.farmer.repository;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import rs.example.carbon_traders.farmer.dto.FarmerSummary;
 import rs.example.carbon_traders.farmer.entity.Farmer;
 import rs.example.carbon_traders.user.entity.User;
 
@@ -16,5 +21,19 @@ public interface FarmerRepository extends JpaRepository<Farmer, Long> {
 
     // Check if farmer profile already exists for a user
     boolean existsByUser(User user);
+
+    // farmer profile id of a logged-in user, empty for non-farmers
+    @Query("SELECT f.id FROM Farmer f WHERE f.user.email = :email")
+    Optional<Long> findIdByUserEmail(@Param("email") String email);
+
+    // dashboard stats reconciliation
+    long countByVerified(boolean verified);
+
+    // keyset page on the primary key, one indexed range scan per page
+    @Query("SELECT new rs.example.carbon_traders.farmer.dto.FarmerSummary("
+            + "f.id, u.fullName, u.email, f.village, f.district, f.state, f.verified) "
+            + "FROM Farmer f JOIN f.user u "
+            + "WHERE f.id > :after ORDER BY f.id")
+    List<FarmerSummary> findSummariesAfter(@Param("after") Long after, Pageable page);
 }
 
@@ -6,6 +6,7 @@ import java.util.List;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import rs.example.carbon_traders.admin.service.PlatformStatsService;
 import rs.example.carbon_traders.farmer.entity.Farmer;
 import rs.example.carbon_traders.farmer.repository.FarmerRepository;
 import rs.example.carbon_traders.user.entity.User;
@@ -15,9 +16,12 @@ import rs.example.carbon_traders.user.entity.User;
 public class FarmerService {
 
     private final FarmerRepository farmerRepository;
+    private final PlatformStatsService platformStatsService;
 
-    public FarmerService(FarmerRepository farmerRepository) {
+    public FarmerService(FarmerRepository farmerRepository,
+                         PlatformStatsService platformStatsService) {
         this.farmerRepository = farmerRepository;
+        this.platformStatsService = platformStatsService;
     }
 
 //     * Create farmer profile (one farmer per user)
@@ -31,7 +35,9 @@ public class FarmerService {
         farmer.setCreatedAt(LocalDateTime.now());
         farmer.setVerified(false);
 
-        return farmerRepository.save(farmer);
+        Farmer saved = farmerRepository.save(farmer);
+        platformStatsService.farmerRegistered();
+        return saved;
     }
 
 //     * Get farmer profile by user
@@ -52,6 +58,7 @@ public class FarmerService {
 //     * Verify farmer (admin authority)
     public Farmer verifyFarmer(Long farmerId) {
         Farmer farmer = getFarmerById(farmerId);
+        platformStatsService.farmerVerificationChanged(farmer.isVerified(), true);
         farmer.setVerified(true);
         farmer.setVerifiedAt(LocalDateTime.now());
         return farmerRepository.save(farmer);
@@ -60,6 +67,7 @@ public class FarmerService {
 //     * Reject farmer verification
     public Farmer rejectFarmer(Long farmerId, String reason) {
         Farmer farmer = getFarmerById(farmerId);
+        platformStatsService.farmerVerificationChanged(farmer.isVerified(), false);
         farmer.setVerified(false);
         farmer.setRejectionReason(reason);
         return farmerRepository.save(farmer);
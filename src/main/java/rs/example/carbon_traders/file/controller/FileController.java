@@ -0,0 +1,181 @@
+package rs.example.carbon_traders.file.controller;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.Principal;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import rs.example.carbon_traders.common.response.ApiResponse;
+import rs.example.carbon_traders.common.storage.BlobRef;
+import rs.example.carbon_traders.file.dto.StoredFile;
+import rs.example.carbon_traders.file.service.FileService;
+
+@RestController
+@RequestMapping("/api/files")
+public class FileController {
+
+    // set by Tomcat's NIO connector when it can hand a file straight to the socket
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final FileService fileService;
+
+    public FileController(FileService fileService) {
+        this.fileService = fileService;
+    }
+
+    // raw body upload (soil report scans, large images): the request stream goes
+    // straight into the store, no multipart spooling
+    @PostMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ApiResponse<BlobRef>> upload(HttpServletRequest request,
+                                                       Principal principal) throws IOException {
+        BlobRef blob = fileService.upload(
+                request.getInputStream(), request.getContentLengthLong(), principal.getName());
+        return ResponseEntity.ok(ApiResponse.success("File stored", blob));
+    }
+
+    // gives back one upload's reference; the bytes go once no upload or job holds one
+    @DeleteMapping("/{digest}")
+    public ResponseEntity<ApiResponse<Void>> delete(@PathVariable String digest,
+                                                    HttpServletRequest request,
+                                                    Principal principal) {
+        fileService.delete(digest, principal.getName(), request.isUserInRole("ADMIN"));
+        return ResponseEntity.ok(ApiResponse.success("File deleted", null));
+    }
+
+    // uploaders of the content and admins only. Content-addressed, so the digest is a
+    // strong ETag and the response never changes. Supports a single byte range; the body
+    // is sent with sendfile when the connector offers it, otherwise with FileChannel.transferTo
+    @GetMapping("/{digest}")
+    public void download(@PathVariable String digest,
+                         HttpServletRequest request,
+                         HttpServletResponse response,
+                         Principal principal) throws IOException {
+
+        StoredFile file = fileService.getFile(digest, principal.getName(), request.isUserInRole("ADMIN"));
+        String etag = "\"" + file.getDigest() + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long size = file.getSize();
+        long start = 0;
+        long end = size - 1;
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentType(file.getContentType());
+        response.setContentLengthLong(Math.max(length, 0));
+        if (length <= 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // helpers
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // {start, end} for one satisfiable range, {} to ignore the header (multi-range,
+    // other units, malformed, last before first), null when the range cannot be satisfied
+    private long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.contains(",")) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Long.parseLong(last);
+                // RFC 9110 14.1.1: a last-pos below first-pos makes the header invalid, serve 200
+                if (end < start) {
+                    return new long[0];
+                }
+                end = Math.min(end, size - 1);
+            }
+            if (start >= size) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
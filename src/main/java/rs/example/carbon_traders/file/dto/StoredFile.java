@@ -0,0 +1,17 @@
+package rs.example.carbon_traders.file.dto;
+
+import java.nio.file.Path;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// a stored blob resolved for download
+@Getter
+@AllArgsConstructor
+public class StoredFile {
+
+    private final String digest;
+    private final Path path;
+    private final long size;
+    private final String contentType;
+}
@@ -0,0 +1,36 @@
+package rs.example.carbon_traders.file.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One upload through /api/files. Each row holds one reference on the blob, so the
+ * same content uploaded twice is two rows over one stored file.
+ */
+@Entity
+@Table(name = "file_uploads", indexes = {
+        @Index(name = "idx_file_uploads_digest_owner", columnList = "digest, ownerEmail")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileUpload {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String digest;
+
+    @Column(nullable = false)
+    private String ownerEmail;
+
+    private Long size;
+
+    private LocalDateTime createdAt;
+}
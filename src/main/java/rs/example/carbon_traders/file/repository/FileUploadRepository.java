@@ -0,0 +1,18 @@
+package rs.example.carbon_traders.file.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import rs.example.carbon_traders.file.entity.FileUpload;
+
+@Repository
+public interface FileUploadRepository extends JpaRepository<FileUpload, Long> {
+
+    Optional<FileUpload> findFirstByDigestAndOwnerEmail(String digest, String ownerEmail);
+
+    Optional<FileUpload> findFirstByDigest(String digest);
+
+    boolean existsByDigestAndOwnerEmail(String digest, String ownerEmail);
+}
@@ -0,0 +1,95 @@
+package rs.example.carbon_traders.file.service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import rs.example.carbon_traders.common.storage.BlobRef;
+import rs.example.carbon_traders.common.storage.BlobStore;
+import rs.example.carbon_traders.common.transaction.AfterCommit;
+import rs.example.carbon_traders.common.util.FileUploadUtil;
+import rs.example.carbon_traders.file.dto.StoredFile;
+import rs.example.carbon_traders.file.entity.FileUpload;
+import rs.example.carbon_traders.file.repository.FileUploadRepository;
+
+@Service
+public class FileService {
+
+    private final BlobStore blobStore;
+    private final FileUploadUtil fileUploadUtil;
+    private final FileUploadRepository fileUploadRepository;
+
+    public FileService(BlobStore blobStore,
+                       FileUploadUtil fileUploadUtil,
+                       FileUploadRepository fileUploadRepository) {
+        this.blobStore = blobStore;
+        this.fileUploadUtil = fileUploadUtil;
+        this.fileUploadRepository = fileUploadRepository;
+    }
+
+    // the upload row owns the blob reference taken here until delete() gives it back
+    public BlobRef upload(InputStream body, long declaredLength, String ownerEmail) {
+        BlobRef blob = fileUploadUtil.saveStream(body, declaredLength);
+        try {
+            fileUploadRepository.save(FileUpload.builder()
+                    .digest(blob.getDigest())
+                    .ownerEmail(ownerEmail)
+                    .size(blob.getSize())
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (RuntimeException e) {
+            fileUploadUtil.deleteFile(blob.getDigest());
+            throw e;
+        }
+        return blob;
+    }
+
+    // drops one of the caller's uploads of this content; admins may drop anyone's
+    @Transactional
+    public void delete(String digest, String email, boolean admin) {
+        FileUpload upload = fileUploadRepository.findFirstByDigestAndOwnerEmail(digest, email)
+                .or(() -> admin ? fileUploadRepository.findFirstByDigest(digest) : Optional.empty())
+                .orElseThrow(() -> new RuntimeException("File not found"));
+
+        fileUploadRepository.delete(upload);
+        AfterCommit.run(() -> fileUploadUtil.deleteFile(digest));
+    }
+
+    // only users who uploaded this content, and admins, may read it
+    @Transactional(readOnly = true)
+    public StoredFile getFile(String digest, String email, boolean admin) {
+        boolean allowed = admin || fileUploadRepository.existsByDigestAndOwnerEmail(digest, email);
+        if (!allowed || !blobStore.exists(digest)) {
+            throw new RuntimeException("File not found");
+        }
+        Path path = blobStore.localPath(digest);
+        return new StoredFile(digest, path, blobStore.size(digest), sniffContentType(path));
+    }
+
+    // blobs carry no name, so the type comes from the first bytes (soil reports are
+    // PDFs, crop photos JPEG/PNG)
+    private String sniffContentType(Path path) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            in.mark(8);
+            byte[] head = in.readNBytes(5);
+            in.reset();
+            if (head.length == 5 && new String(head, StandardCharsets.US_ASCII).equals("%PDF-")) {
+                return MediaType.APPLICATION_PDF_VALUE;
+            }
+            String guessed = URLConnection.guessContentTypeFromStream(in);
+            return guessed != null ? guessed : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        } catch (IOException e) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package rs.example.carbon_traders.trading.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
+import rs.example.carbon_traders.carboncredit.repository.CarbonCreditRepository;
+import rs.example.carbon_traders.common.exception.BusinessException;
+import rs.example.carbon_traders.common.exception.ServiceBusyException;
+import rs.example.carbon_traders.trading.entity.FailedTrade;
+import rs.example.carbon_traders.trading.model.Fill;
+import rs.example.carbon_traders.trading.model.MatchResult;
+import rs.example.carbon_traders.trading.repository.FailedTradeRepository;
+import rs.example.carbon_traders.trading.service.TradeRecorder;
+import rs.example.carbon_traders.transaction.entity.CreditTransaction;
+
+/**
+ * Single-writer matching engine. All book mutations run on one thread fed by a bounded
+ * inbox, so matching needs no locks and no DB round trip. Fills are handed to the
+ * TradeRecorder which writes them as CreditTransaction rows in the background.
+ *
+ * A caller that times out only gets an error if its command had not started yet; once
+ * the engine has picked a command up it runs to completion and the caller gets its result.
+ */
+@Slf4j
+@Component
+public class MatchingEngine {
+
+    private final OrderBook book = new OrderBook();
+
+    private final CarbonCreditRepository carbonCreditRepository;
+    private final TradeRecorder tradeRecorder;
+    private final FailedTradeRepository failedTradeRepository;
+
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private final long ackTimeoutMillis;
+    private final BlockingQueue<Runnable> inbox;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public MatchingEngine(CarbonCreditRepository carbonCreditRepository,
+                          TradeRecorder tradeRecorder,
+                          FailedTradeRepository failedTradeRepository,
+                          @Value("${trading.engine.enabled:true}") boolean enabled,
+                          @Value("${trading.engine.queue-capacity:65536}") int queueCapacity,
+                          @Value("${trading.engine.timeout-ms:2000}") long timeoutMillis,
+                          @Value("${trading.recorder.ack-timeout-ms:2000}") long ackTimeoutMillis) {
+        this.carbonCreditRepository = carbonCreditRepository;
+        this.tradeRecorder = tradeRecorder;
+        this.failedTradeRepository = failedTradeRepository;
+        this.enabled = enabled;
+        this.timeoutMillis = timeoutMillis;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.inbox = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    // lifecycle
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+
+        // parked fills, pending or dead, were matched but are not in the lot balances; each carries
+        // what its lot had left after it, and supply only shrinks, so the lowest wins
+        Map<Long, Double> parkedRemaining = new HashMap<>();
+        for (FailedTrade parked : failedTradeRepository.findAll()) {
+            parkedRemaining.merge(parked.getLotId(), parked.getLotRemaining(), Math::min);
+        }
+
+        // load every lot with supply left, oldest first so time priority matches the table
+        List<CarbonCredit> lots = carbonCreditRepository.findByAvailableCreditsGreaterThan(0.0);
+        lots.sort((a, b) -> a.getId().compareTo(b.getId()));
+        for (CarbonCredit lot : lots) {
+            double available = Math.min(lot.getAvailableCredits(),
+                    parkedRemaining.getOrDefault(lot.getId(), Double.MAX_VALUE));
+            if (available <= OrderBook.EPSILON) {
+                continue;
+            }
+            book.addOffer(lot.getId(), lot.getFarmer().getId(), lot.getPricePerCredit(), available);
+        }
+
+        running = true;
+        worker = new Thread(this::runLoop, "matching-engine");
+        worker.setDaemon(true);
+        worker.start();
+
+        log.info("Matching engine started with {} resting lots", book.offerCount());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // commands
+
+    // lists a freshly generated lot; crossing fills go straight to the recorder
+    public void addOffer(CarbonCredit lot) {
+        submit(() -> {
+            List<Fill> fills = book.addOffer(lot.getId(), lot.getFarmer().getId(),
+                    lot.getPricePerCredit(), lot.getAvailableCredits());
+            fills.forEach(tradeRecorder::record);
+            return fills;
+        });
+    }
+
+    // the fill is handed to the recorder on the engine thread, so a caller that times out
+    // never leaves a matched trade unrecorded. The caller then waits for the row to commit
+    // so it gets the stored transaction; if that takes too long the trade is still going
+    // ahead and is reported as PENDING rather than as a failure
+    public CreditTransaction buyLot(Long lotId, Long companyId, double quantity,
+                                    Function<Fill, CreditTransaction> toTransaction) {
+        // checked here as well so a bad request never takes an inbox slot
+        OrderBook.requirePositive(quantity, "Credits to buy");
+        Recorded recorded = await(submit(() -> {
+            Fill fill = book.buyLot(lotId, companyId, quantity);
+            CreditTransaction transaction = toTransaction.apply(fill);
+            return new Recorded(transaction, tradeRecorder.record(fill, transaction));
+        }));
+
+        try {
+            return recorded.ack().get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Trade on lot {} for company {} not yet stored after {} ms, reporting it as pending",
+                    lotId, companyId, ackTimeoutMillis);
+            return pending(recorded.transaction());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return pending(recorded.transaction());
+        } catch (ExecutionException e) {
+            // the recorder never fails an ack, it parks the trade instead
+            throw new IllegalStateException("Trade recorder failed an acknowledgement", e.getCause());
+        }
+    }
+
+    public MatchResult placeBuy(Long companyId, double limitPrice, double quantity, boolean immediateOrCancel) {
+        OrderBook.requirePositive(limitPrice, "Limit price");
+        OrderBook.requirePositive(quantity, "Credits to buy");
+        return await(submit(() -> {
+            MatchResult result = book.placeBuy(companyId, limitPrice, quantity, immediateOrCancel);
+            result.getFills().forEach(tradeRecorder::record);
+            return result;
+        }));
+    }
+
+    // engine thread
+
+    private void runLoop() {
+        List<Runnable> batch = new ArrayList<>(256);
+        while (running) {
+            try {
+                batch.add(inbox.take());
+                inbox.drainTo(batch, 255);
+                for (Runnable command : batch) {
+                    command.run();
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private <T> Command<T> submit(Supplier<T> action) {
+        if (!enabled) {
+            throw new BusinessException("Trading engine is disabled");
+        }
+
+        Command<T> command = new Command<>(action);
+
+        // back-pressure: reject instead of queueing without bound
+        if (!inbox.offer(command)) {
+            throw new ServiceBusyException("Trading engine is busy, please retry");
+        }
+        return command;
+    }
+
+    private <T> T await(Command<T> command) {
+        try {
+            try {
+                return command.future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (command.abandon()) {
+                    throw new ServiceBusyException("Order matching timed out, nothing was executed");
+                }
+                // already running on the engine thread: it will finish, so report what it did
+                return command.future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Order matching failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Order matching interrupted");
+        }
+    }
+
+    // a copy, so the caller's view is kept apart from the row the recorder is still writing
+    private static CreditTransaction pending(CreditTransaction transaction) {
+        return CreditTransaction.builder()
+                .company(transaction.getCompany())
+                .farmer(transaction.getFarmer())
+                .carbonCredit(transaction.getCarbonCredit())
+                .creditsPurchased(transaction.getCreditsPurchased())
+                .pricePerCredit(transaction.getPricePerCredit())
+                .totalAmount(transaction.getTotalAmount())
+                .status("PENDING")
+                .createdAt(transaction.getCreatedAt())
+                .build();
+    }
+
+    private record Recorded(CreditTransaction transaction, CompletableFuture<CreditTransaction> ack) {
+    }
+
+    // an inbox entry; the engine and a timed out caller race on state so that a command
+    // either runs in full or not at all
+    private static final class Command<T> implements Runnable {
+
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int ABANDONED = 2;
+
+        private final Supplier<T> action;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        private Command(Supplier<T> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return;
+            }
+            try {
+                future.complete(action.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private boolean abandon() {
+            return state.compareAndSet(QUEUED, ABANDONED);
+        }
+    }
+}
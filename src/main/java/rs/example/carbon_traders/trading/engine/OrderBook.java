@@ -0,0 +1,217 @@
+package rs.example.carbon_traders.trading.engine;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import rs.example.carbon_traders.common.exception.BusinessException;
+import rs.example.carbon_traders.trading.model.BuyOrder;
+import rs.example.carbon_traders.trading.model.Fill;
+import rs.example.carbon_traders.trading.model.MatchResult;
+import rs.example.carbon_traders.trading.model.SellOffer;
+
+/**
+ * Price-time priority book of carbon credit lots (asks) and company buy orders (bids).
+ * Every price level is a FIFO queue. Not thread safe: only the MatchingEngine thread touches it.
+ */
+public class OrderBook {
+
+    // credits are stored as doubles, anything below this counts as zero
+    static final double EPSILON = 1e-9;
+
+    // lowest price first
+    private final TreeMap<Double, ArrayDeque<SellOffer>> asks = new TreeMap<>();
+
+    // highest price first
+    private final TreeMap<Double, ArrayDeque<BuyOrder>> bids = new TreeMap<>(Comparator.reverseOrder());
+
+    private final Map<Long, SellOffer> offersByLot = new HashMap<>();
+    private final Map<Long, BuyOrder> ordersById = new HashMap<>();
+
+    private long sequence;
+    private long nextOrderId = 1;
+
+    // sell side
+
+    // adds a lot to the book, crossing it against resting bids first
+    public List<Fill> addOffer(Long lotId, Long farmerId, double price, double quantity) {
+
+        requirePositive(price, "Price per credit");
+        requirePositive(quantity, "Credits");
+        if (offersByLot.containsKey(lotId)) {
+            throw new BusinessException("Carbon credit lot already listed");
+        }
+
+        SellOffer offer = new SellOffer(lotId, farmerId, price, quantity, ++sequence);
+        List<Fill> fills = new ArrayList<>();
+
+        Iterator<Map.Entry<Double, ArrayDeque<BuyOrder>>> levels = bids.entrySet().iterator();
+        while (offer.getRemaining() > EPSILON && levels.hasNext()) {
+            Map.Entry<Double, ArrayDeque<BuyOrder>> level = levels.next();
+            if (level.getKey() < price) {
+                break;
+            }
+
+            ArrayDeque<BuyOrder> queue = level.getValue();
+            while (offer.getRemaining() > EPSILON && !queue.isEmpty()) {
+                BuyOrder bid = queue.peekFirst();
+                fills.add(match(offer, bid.getCompanyId(), bid, Math.min(offer.getRemaining(), bid.getRemaining())));
+
+                if (bid.getRemaining() <= EPSILON) {
+                    queue.pollFirst();
+                    ordersById.remove(bid.getOrderId());
+                }
+            }
+            if (queue.isEmpty()) {
+                levels.remove();
+            }
+        }
+
+        if (offer.getRemaining() > EPSILON) {
+            offersByLot.put(lotId, offer);
+            asks.computeIfAbsent(price, p -> new ArrayDeque<>()).addLast(offer);
+        }
+        return fills;
+    }
+
+    // buy side
+
+    // buys from one specific lot, the path TransactionService.buyCarbonCredits uses
+    public Fill buyLot(Long lotId, Long companyId, double quantity) {
+
+        requirePositive(quantity, "Credits to buy");
+        SellOffer offer = offersByLot.get(lotId);
+        if (offer == null) {
+            throw new BusinessException("Carbon credit not found");
+        }
+        if (offer.getRemaining() + EPSILON < quantity) {
+            throw new BusinessException("Not enough credits available");
+        }
+
+        Fill fill = match(offer, companyId, null, quantity);
+        if (offer.getRemaining() <= EPSILON) {
+            offersByLot.remove(lotId);
+            unlinkAsk(offer);
+        }
+        return fill;
+    }
+
+    // limit buy across all sellers; the remainder rests in the book unless immediateOrCancel
+    public MatchResult placeBuy(Long companyId, double limitPrice, double quantity, boolean immediateOrCancel) {
+
+        requirePositive(limitPrice, "Limit price");
+        requirePositive(quantity, "Credits to buy");
+        BuyOrder order = new BuyOrder(nextOrderId++, companyId, limitPrice, quantity, ++sequence);
+        List<Fill> fills = new ArrayList<>();
+
+        Iterator<Map.Entry<Double, ArrayDeque<SellOffer>>> levels = asks.entrySet().iterator();
+        while (order.getRemaining() > EPSILON && levels.hasNext()) {
+            Map.Entry<Double, ArrayDeque<SellOffer>> level = levels.next();
+            if (level.getKey() > limitPrice) {
+                break;
+            }
+
+            ArrayDeque<SellOffer> queue = level.getValue();
+            while (order.getRemaining() > EPSILON && !queue.isEmpty()) {
+                SellOffer offer = queue.peekFirst();
+                fills.add(match(offer, companyId, order, Math.min(offer.getRemaining(), order.getRemaining())));
+
+                if (offer.getRemaining() <= EPSILON) {
+                    queue.pollFirst();
+                    offersByLot.remove(offer.getLotId());
+                }
+            }
+            if (queue.isEmpty()) {
+                levels.remove();
+            }
+        }
+
+        double resting = 0;
+        if (!immediateOrCancel && order.getRemaining() > EPSILON) {
+            resting = order.getRemaining();
+            ordersById.put(order.getOrderId(), order);
+            bids.computeIfAbsent(limitPrice, p -> new ArrayDeque<>()).addLast(order);
+        }
+        return new MatchResult(order.getOrderId(), fills, resting);
+    }
+
+    public boolean cancelBuy(long orderId) {
+        BuyOrder order = ordersById.remove(orderId);
+        if (order == null) {
+            return false;
+        }
+        ArrayDeque<BuyOrder> queue = bids.get(order.getLimitPrice());
+        queue.remove(order);
+        if (queue.isEmpty()) {
+            bids.remove(order.getLimitPrice());
+        }
+        return true;
+    }
+
+    // read side
+
+    public Double bestAsk() {
+        return asks.isEmpty() ? null : asks.firstKey();
+    }
+
+    public Double bestBid() {
+        return bids.isEmpty() ? null : bids.firstKey();
+    }
+
+    public double availableInLot(Long lotId) {
+        SellOffer offer = offersByLot.get(lotId);
+        return offer == null ? 0 : offer.getRemaining();
+    }
+
+    public int offerCount() {
+        return offersByLot.size();
+    }
+
+    public int restingBuyCount() {
+        return ordersById.size();
+    }
+
+    // helpers
+
+    // a negative or NaN quantity would grow the lot it is matched against
+    static void requirePositive(double value, String name) {
+        if (!(value > 0) || Double.isInfinite(value)) {
+            throw new BusinessException(name + " must be a positive number");
+        }
+    }
+
+    private Fill match(SellOffer offer, Long companyId, BuyOrder bid, double quantity) {
+        offer.reduce(quantity);
+        if (bid != null) {
+            bid.reduce(quantity);
+        }
+        // lots always trade at the farmer's listed price, whichever side arrived last
+        double lotRemaining = offer.getRemaining() <= EPSILON ? 0 : offer.getRemaining();
+        return new Fill(
+                offer.getLotId(),
+                offer.getFarmerId(),
+                companyId,
+                quantity,
+                offer.getPricePerCredit(),
+                lotRemaining,
+                LocalDateTime.now()
+        );
+    }
+
+    private void unlinkAsk(SellOffer offer) {
+        ArrayDeque<SellOffer> queue = asks.get(offer.getPricePerCredit());
+        if (queue == null) {
+            return;
+        }
+        queue.remove(offer);
+        if (queue.isEmpty()) {
+            asks.remove(offer.getPricePerCredit());
+        }
+    }
+}
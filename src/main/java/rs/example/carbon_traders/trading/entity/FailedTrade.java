@@ -0,0 +1,82 @@
+package rs.example.carbon_traders.trading.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import rs.example.carbon_traders.trading.enums.FailedTradeStatus;
+import rs.example.carbon_traders.trading.model.Fill;
+
+// an executed fill whose CreditTransaction could not be written, kept until a replay succeeds
+@Entity
+@Table(name = "failed_trades", indexes = {
+        @Index(name = "idx_failed_trades_due", columnList = "status, nextAttemptAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FailedTrade {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long lotId;
+
+    @Column(nullable = false)
+    private Long farmerId;
+
+    @Column(nullable = false)
+    private Long companyId;
+
+    @Column(nullable = false)
+    private Double quantity;
+
+    @Column(nullable = false)
+    private Double pricePerCredit;
+
+    @Column(nullable = false)
+    private Double lotRemaining;
+
+    @Column(nullable = false)
+    private LocalDateTime executedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private FailedTradeStatus status;
+
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+
+    public static FailedTrade of(Fill fill, String error, LocalDateTime now) {
+        return FailedTrade.builder()
+                .lotId(fill.getLotId())
+                .farmerId(fill.getFarmerId())
+                .companyId(fill.getCompanyId())
+                .quantity(fill.getQuantity())
+                .pricePerCredit(fill.getPricePerCredit())
+                .lotRemaining(fill.getLotRemaining())
+                .executedAt(fill.getExecutedAt())
+                .status(FailedTradeStatus.PENDING)
+                .nextAttemptAt(now)
+                .lastError(error)
+                .createdAt(now)
+                .build();
+    }
+
+    public Fill toFill() {
+        return new Fill(lotId, farmerId, companyId, quantity, pricePerCredit, lotRemaining, executedAt);
+    }
+}
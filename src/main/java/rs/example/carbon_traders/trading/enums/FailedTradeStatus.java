@@ -0,0 +1,6 @@
+package rs.example.carbon_traders.trading.enums;
+
+public enum FailedTradeStatus {
+    PENDING,   // replayed by TradeRecorder until it is written
+    DEAD       // gave up after max-attempts, needs a manual fix
+}
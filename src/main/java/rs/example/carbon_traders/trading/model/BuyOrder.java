@@ -0,0 +1,31 @@
+package rs.example.carbon_traders.trading.model;
+
+import lombok.Getter;
+
+// buy order placed by a company, rests in the book until filled or cancelled
+@Getter
+public class BuyOrder {
+
+    private final long orderId;
+    private final Long companyId;
+    private final double limitPrice;
+    private final double quantity;
+    private final long sequence;
+
+    private double remaining;
+
+    public BuyOrder(long orderId, Long companyId, double limitPrice,
+                    double quantity, long sequence) {
+        this.orderId = orderId;
+        this.companyId = companyId;
+        this.limitPrice = limitPrice;
+        this.quantity = quantity;
+        this.remaining = quantity;
+        this.sequence = sequence;
+    }
+
+    // only the engine thread calls this
+    public void reduce(double quantity) {
+        this.remaining -= quantity;
+    }
+}
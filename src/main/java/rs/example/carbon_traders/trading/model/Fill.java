@@ -0,0 +1,27 @@
+package rs.example.carbon_traders.trading.model;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// one match between a sell offer and a buyer, persisted later as a CreditTransaction
+@Getter
+@AllArgsConstructor
+public class Fill {
+
+    private final Long lotId;
+    private final Long farmerId;
+    private final Long companyId;
+    private final double quantity;
+    private final double pricePerCredit;
+
+    // remaining supply of the lot right after this fill
+    private final double lotRemaining;
+
+    private final LocalDateTime executedAt;
+
+    public double getTotalAmount() {
+        return quantity * pricePerCredit;
+    }
+}
@@ -0,0 +1,26 @@
+package rs.example.carbon_traders.trading.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// outcome of one buy command handled by the matching engine
+@Getter
+@AllArgsConstructor
+public class MatchResult {
+
+    private final long orderId;
+    private final List<Fill> fills;
+
+    // quantity left resting in the book (0 for immediate-or-cancel orders)
+    private final double restingQuantity;
+
+    public double getFilledQuantity() {
+        return fills.stream().mapToDouble(Fill::getQuantity).sum();
+    }
+
+    public boolean isFilled() {
+        return !fills.isEmpty();
+    }
+}
@@ -0,0 +1,31 @@
+package rs.example.carbon_traders.trading.model;
+
+import lombok.Getter;
+
+// resting sell offer backed by one CarbonCredit lot
+@Getter
+public class SellOffer {
+
+    private final Long lotId;
+    private final Long farmerId;
+    private final double pricePerCredit;
+
+    // arrival order inside the price level (time priority)
+    private final long sequence;
+
+    private double remaining;
+
+    public SellOffer(Long lotId, Long farmerId, double pricePerCredit,
+                     double remaining, long sequence) {
+        this.lotId = lotId;
+        this.farmerId = farmerId;
+        this.pricePerCredit = pricePerCredit;
+        this.remaining = remaining;
+        this.sequence = sequence;
+    }
+
+    // only the engine thread calls this
+    public void reduce(double quantity) {
+        this.remaining -= quantity;
+    }
+}
@@ -0,0 +1,24 @@
+package rs.example.carbon_traders.trading.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import rs.example.carbon_traders.trading.entity.FailedTrade;
+import rs.example.carbon_traders.trading.enums.FailedTradeStatus;
+
+@Repository
+public interface FailedTradeRepository extends JpaRepository<FailedTrade, Long> {
+
+    @Query("SELECT f FROM FailedTrade f WHERE f.status = :status AND f.nextAttemptAt <= :now ORDER BY f.id")
+    List<FailedTrade> findDue(@Param("status") FailedTradeStatus status,
+                              @Param("now") LocalDateTime now,
+                              Pageable page);
+
+    long countByStatus(FailedTradeStatus status);
+}
@@ -0,0 +1,370 @@
+package rs.example.carbon_traders.trading.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rs.example.carbon_traders.admin.service.PlatformStatsService;
+import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
+import rs.example.carbon_traders.carboncredit.repository.CarbonCreditRepository;
+import rs.example.carbon_traders.carboncredit.service.MarketplaceView;
+import rs.example.carbon_traders.common.exception.BusinessException;
+import rs.example.carbon_traders.common.transaction.AfterCommit;
+import rs.example.carbon_traders.company.repository.CompanyRepository;
+import rs.example.carbon_traders.farmer.repository.FarmerRepository;
+import rs.example.carbon_traders.trading.entity.FailedTrade;
+import rs.example.carbon_traders.trading.enums.FailedTradeStatus;
+import rs.example.carbon_traders.trading.model.Fill;
+import rs.example.carbon_traders.trading.repository.FailedTradeRepository;
+import rs.example.carbon_traders.transaction.entity.CreditTransaction;
+import rs.example.carbon_traders.transaction.repository.TransactionRepository;
+import rs.example.carbon_traders.transaction.service.TransactionOutbox;
+
+/**
+ * Persists matching engine fills off the engine thread. Each batch writes the
+ * CreditTransaction rows, their chain outbox entries, the new CarbonCredit balances
+ * and the buyers' purchase totals in one DB transaction.
+ *
+ * A fill is never dropped. When a batch fails its fills are retried one by one, and a
+ * fill that still fails is parked in failed_trades and replayed on a schedule. If even
+ * that write fails (DB down) the fills go back on the queue after a backoff.
+ */
+@Slf4j
+@Component
+public class TradeRecorder {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final TransactionRepository transactionRepository;
+    private final CarbonCreditRepository carbonCreditRepository;
+    private final CompanyRepository companyRepository;
+    private final FarmerRepository farmerRepository;
+    private final FailedTradeRepository failedTradeRepository;
+    private final MarketplaceView marketplaceView;
+    private final TransactionOutbox transactionOutbox;
+    private final PlatformStatsService platformStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long retryBackoffMs;
+    private final int replayMaxAttempts;
+
+    private final BlockingQueue<PendingTrade> queue = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public TradeRecorder(TransactionRepository transactionRepository,
+                         CarbonCreditRepository carbonCreditRepository,
+                         CompanyRepository companyRepository,
+                         FarmerRepository farmerRepository,
+                         FailedTradeRepository failedTradeRepository,
+                         MarketplaceView marketplaceView,
+                         TransactionOutbox transactionOutbox,
+                         PlatformStatsService platformStatsService,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${trading.recorder.batch-size:500}") int batchSize,
+                         @Value("${trading.recorder.retry-backoff-ms:1000}") long retryBackoffMs,
+                         @Value("${trading.recorder.replay-max-attempts:20}") int replayMaxAttempts) {
+        this.transactionRepository = transactionRepository;
+        this.carbonCreditRepository = carbonCreditRepository;
+        this.companyRepository = companyRepository;
+        this.farmerRepository = farmerRepository;
+        this.failedTradeRepository = failedTradeRepository;
+        this.marketplaceView = marketplaceView;
+        this.transactionOutbox = transactionOutbox;
+        this.platformStatsService = platformStatsService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retryBackoffMs = retryBackoffMs;
+        this.replayMaxAttempts = replayMaxAttempts;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "trade-recorder");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // flush whatever is still queued before the context closes
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+
+        List<PendingTrade> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (rest.isEmpty()) {
+            return;
+        }
+
+        // same as the runtime path: whatever cannot be written is parked for the replay,
+        // with a few more tries since there is no later batch to pick them up
+        List<PendingTrade> unstored = new ArrayList<>(persist(rest));
+        RuntimeException shutdown = new IllegalStateException("Not persisted before shutdown");
+        for (int attempt = 1; attempt < MAX_ATTEMPTS && !unstored.isEmpty(); attempt++) {
+            Thread.sleep(retryBackoffMs);
+            unstored.removeIf(trade -> park(trade, shutdown));
+        }
+
+        // nowhere left to keep them: log every fill so it can be re-entered by hand
+        for (PendingTrade trade : unstored) {
+            Fill fill = trade.fill();
+            log.error("Trade not persisted at shutdown | lot: {} | company: {} | credits: {} | price: {}",
+                    fill.getLotId(), fill.getCompanyId(), fill.getQuantity(), fill.getPricePerCredit());
+        }
+    }
+
+    // fill from a resting order, the transaction row is built at persist time
+    public void record(Fill fill) {
+        queue.add(new PendingTrade(fill, null, null));
+    }
+
+    // fill from a synchronous purchase; completes with the saved row once it commits,
+    // or with the row marked PENDING when it was parked for replay
+    public CompletableFuture<CreditTransaction> record(Fill fill, CreditTransaction transaction) {
+        CompletableFuture<CreditTransaction> ack = new CompletableFuture<>();
+        queue.add(new PendingTrade(fill, transaction, ack));
+        return ack;
+    }
+
+    public int backlog() {
+        return queue.size();
+    }
+
+    public long parked() {
+        return failedTradeRepository.countByStatus(FailedTradeStatus.PENDING);
+    }
+
+    // recorder thread
+
+    private void runLoop() {
+        List<PendingTrade> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+
+                List<PendingTrade> unstored = persist(batch);
+                batch.clear();
+                if (!unstored.isEmpty()) {
+                    queue.addAll(unstored);
+                    Thread.sleep(retryBackoffMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // stop() drains what is left, including this batch
+                queue.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    // returns the fills that could be neither written nor parked
+    private List<PendingTrade> persist(List<PendingTrade> batch) {
+        RuntimeException failure = null;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            try {
+                writeAndAck(batch);
+                return List.of();
+            } catch (RuntimeException e) {
+                failure = e;
+                log.warn("Persisting {} trades failed (attempt {}/{})", batch.size(), attempt, MAX_ATTEMPTS, e);
+            }
+        }
+
+        // one bad fill must not sink the rest of the batch
+        List<PendingTrade> unstored = new ArrayList<>();
+        for (PendingTrade trade : batch) {
+            RuntimeException error = failure;
+            if (batch.size() > 1) {
+                try {
+                    writeAndAck(List.of(trade));
+                    continue;
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+            }
+            if (!park(trade, error)) {
+                unstored.add(trade);
+            }
+        }
+        return unstored;
+    }
+
+    private void writeAndAck(List<PendingTrade> batch) {
+        List<Fill> fills = new ArrayList<>(batch.size());
+        List<CreditTransaction> prepared = new ArrayList<>(batch.size());
+        for (PendingTrade trade : batch) {
+            fills.add(trade.fill());
+            prepared.add(trade.transaction());
+        }
+
+        List<CreditTransaction> saved;
+        try {
+            saved = transactionTemplate.execute(status -> write(fills, prepared));
+        } catch (RuntimeException e) {
+            // ids handed out by a rolled back attempt must not be reused as "existing" rows
+            prepared.forEach(transaction -> {
+                if (transaction != null) {
+                    transaction.setId(null);
+                }
+            });
+            throw e;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<CreditTransaction> ack = batch.get(i).ack();
+            if (ack != null) {
+                ack.complete(saved.get(i));
+            }
+        }
+    }
+
+    private boolean park(PendingTrade trade, RuntimeException error) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    failedTradeRepository.save(FailedTrade.of(trade.fill(), describe(error), LocalDateTime.now())));
+        } catch (RuntimeException e) {
+            log.error("Parking trade for lot {} failed, keeping it queued", trade.fill().getLotId(), e);
+            return false;
+        }
+
+        log.error("Trade parked for replay | lot: {} | company: {} | credits: {}",
+                trade.fill().getLotId(), trade.fill().getCompanyId(), trade.fill().getQuantity(), error);
+        if (trade.ack() != null) {
+            CreditTransaction transaction = trade.transaction();
+            transaction.setId(null);
+            transaction.setStatus("PENDING");
+            trade.ack().complete(transaction);
+        }
+        return true;
+    }
+
+    // replays parked fills; the row is deleted in the same transaction that writes the trade
+    @Scheduled(fixedDelayString = "${trading.recorder.replay-interval-ms:30000}")
+    public void replayParked() {
+        List<FailedTrade> due = failedTradeRepository.findDue(
+                FailedTradeStatus.PENDING, LocalDateTime.now(), PageRequest.ofSize(100));
+
+        for (FailedTrade parked : due) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    write(List.of(parked.toFill()), Collections.singletonList(null));
+                    failedTradeRepository.deleteById(parked.getId());
+                });
+                log.info("Replayed parked trade {} for lot {}", parked.getId(), parked.getLotId());
+            } catch (RuntimeException e) {
+                int attempts = parked.getAttempts() + 1;
+                parked.setAttempts(attempts);
+                parked.setLastError(describe(e));
+                parked.setNextAttemptAt(LocalDateTime.now().plusNanos(
+                        TimeUnit.MILLISECONDS.toNanos(retryBackoffMs << Math.min(attempts, 10))));
+                if (attempts >= replayMaxAttempts) {
+                    parked.setStatus(FailedTradeStatus.DEAD);
+                    log.error("Parked trade {} for lot {} gave up after {} attempts",
+                            parked.getId(), parked.getLotId(), attempts, e);
+                }
+                transactionTemplate.executeWithoutResult(status -> failedTradeRepository.save(parked));
+            }
+        }
+    }
+
+    // a null entry in prepared means the row is built from the fill
+    private List<CreditTransaction> write(List<Fill> fills, List<CreditTransaction> prepared) {
+
+        Set<Long> lotIds = new LinkedHashSet<>();
+        fills.forEach(fill -> lotIds.add(fill.getLotId()));
+
+        Map<Long, CarbonCredit> lots = new HashMap<>();
+        carbonCreditRepository.findAllById(lotIds).forEach(lot -> lots.put(lot.getId(), lot));
+
+        Map<Long, Double> purchasedByCompany = new HashMap<>();
+        List<CreditTransaction> transactions = new ArrayList<>(fills.size());
+        for (int i = 0; i < fills.size(); i++) {
+            Fill fill = fills.get(i);
+            CarbonCredit lot = lots.get(fill.getLotId());
+            if (lot == null) {
+                throw new BusinessException("Carbon credit lot " + fill.getLotId() + " not found");
+            }
+
+            // a lot's supply only shrinks, so the lowest remaining seen is the current one;
+            // this keeps a replayed older fill from raising the balance again
+            double available = lot.getAvailableCredits() == null
+                    ? fill.getLotRemaining()
+                    : Math.min(lot.getAvailableCredits(), fill.getLotRemaining());
+            lot.setAvailableCredits(available);
+            lot.setSoldCredits((lot.getSoldCredits() == null ? 0.0 : lot.getSoldCredits()) + fill.getQuantity());
+            lot.setCompany(companyRepository.getReferenceById(fill.getCompanyId()));
+            lot.setStatus(available == 0 ? "SOLD" : "PARTIALLY_SOLD");
+            lot.setUpdatedAt(fill.getExecutedAt());
+
+            purchasedByCompany.merge(fill.getCompanyId(), fill.getQuantity(), Double::sum);
+
+            CreditTransaction transaction = prepared.get(i);
+            if (transaction == null) {
+                transaction = CreditTransaction.builder()
+                        .company(companyRepository.getReferenceById(fill.getCompanyId()))
+                        .farmer(farmerRepository.getReferenceById(fill.getFarmerId()))
+                        .carbonCredit(lot)
+                        .creditsPurchased(fill.getQuantity())
+                        .pricePerCredit(fill.getPricePerCredit())
+                        .totalAmount(fill.getTotalAmount())
+                        .status("SUCCESS")
+                        .createdAt(fill.getExecutedAt())
+                        .build();
+            }
+            transactions.add(transaction);
+        }
+
+        List<CreditTransaction> saved = transactionRepository.saveAll(transactions);
+        transactionOutbox.record(saved);
+        purchasedByCompany.forEach((companyId, credits) -> {
+            companyRepository.addPurchasedCredits(companyId, credits);
+            platformStatsService.creditsPurchased(credits);
+        });
+
+        // publish the persisted balances to the marketplace once the batch commits;
+        // flushed first so each lot carries the version this write produced
+        carbonCreditRepository.flush();
+        for (CarbonCredit lot : lots.values()) {
+            Long lotId = lot.getId();
+            Double available = lot.getAvailableCredits();
+            String status = lot.getStatus();
+            Long version = lot.getVersion();
+            AfterCommit.run(() -> marketplaceView.balanceChanged(lotId, available, status, version));
+        }
+        return saved;
+    }
+
+    private static String describe(RuntimeException error) {
+        if (error == null) {
+            return null;
+        }
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private record PendingTrade(Fill fill, CreditTransaction transaction, CompletableFuture<CreditTransaction> ack) {
+    }
+}
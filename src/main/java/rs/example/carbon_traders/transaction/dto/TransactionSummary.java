@@ -0,0 +1,24 @@
+package rs.example.carbon_traders.transaction.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// listing row for the transaction history, filled by a JPQL constructor expression
+@Getter
+@AllArgsConstructor
+public class TransactionSummary {
+
+    private Long id;
+    private Long companyId;
+    private String companyName;
+    private Long farmerId;
+    private Long carbonCreditId;
+    private Double creditsPurchased;
+    private Double pricePerCredit;
+    private Double totalAmount;
+    private String status;
+    private String blockchainTxHash;
+    private LocalDateTime createdAt;
+}
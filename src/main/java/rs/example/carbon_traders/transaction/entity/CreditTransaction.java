@@ -17,18 +17,21 @@ import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
 @AllArgsConstructor
 @Builder
 public class CreditTransaction {
+    // pooled sequence instead of IDENTITY so Hibernate can batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credit_transactions_seq")
+    @SequenceGenerator(name = "credit_transactions_seq", sequenceName = "credit_transactions_seq", allocationSize = 50)
     private Long id;
+    // associations are lazy, listings use the TransactionSummary projections
     // Buyer
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "company_id", nullable = false)
     private Company company;
     // Seller
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "farmer_id", nullable = false)
     private Farmer farmer;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "carbon_credit_id", nullable = false)
     private CarbonCredit carbonCredit;
     private Double creditsPurchased;
@@ -36,7 +39,7 @@ public class CreditTransaction {
     private Double totalAmount;
     private String status;
 
-    // For future blockchain
+    // set by the outbox relay once the trade is recorded on chain
     private String blockchainTxHash;
 
     private LocalDateTime createdAt;
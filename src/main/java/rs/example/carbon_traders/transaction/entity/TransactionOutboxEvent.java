@@ -0,0 +1,63 @@
+package rs.example.carbon_traders.transaction.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import rs.example.carbon_traders.transaction.enums.OutboxStatus;
+
+// pending on-chain record of a CreditTransaction, written in the same DB transaction
+@Entity
+@Table(name = "transaction_outbox", indexes = {
+        @Index(name = "idx_transaction_outbox_due", columnList = "status, nextAttemptAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionOutboxEvent {
+
+    // pooled sequence, rows are inserted in the same batch as the transactions
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_outbox_seq")
+    @SequenceGenerator(name = "transaction_outbox_seq", sequenceName = "transaction_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    // sent with every attempt, the contract ignores a key it has already recorded
+    @Column(nullable = false, unique = true)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private Long creditTransactionId;
+
+    @Column(nullable = false)
+    private Long carbonCreditId;
+
+    @Column(nullable = false)
+    private Double credits;
+
+    @Column(nullable = false)
+    private LocalDateTime executedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // due time for the next attempt, or the end of the current attempt's lease
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // last submitted transaction, checked before resending
+    private String txHash;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package rs.example.carbon_traders.transaction.enums;
+
+public enum ExportFormat {
+
+    CSV,      // header row + one line per transaction
+    NDJSON    // one JSON object per line
+
+}
@@ -0,0 +1,8 @@
+package rs.example.carbon_traders.transaction.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    SUBMITTED,
+    CONFIRMED,
+    FAILED
+}
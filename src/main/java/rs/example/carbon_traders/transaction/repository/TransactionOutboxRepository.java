@@ -0,0 +1,51 @@
+package rs.example.carbon_traders.transaction.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import rs.example.carbon_traders.transaction.entity.TransactionOutboxEvent;
+import rs.example.carbon_traders.transaction.enums.OutboxStatus;
+
+@Repository
+public interface TransactionOutboxRepository extends JpaRepository<TransactionOutboxEvent, Long> {
+
+    // rows waiting for a (re)send
+    @Query("SELECT e FROM TransactionOutboxEvent e "
+            + "WHERE e.status = rs.example.carbon_traders.transaction.enums.OutboxStatus.PENDING "
+            + "AND e.nextAttemptAt <= :now "
+            + "ORDER BY e.nextAttemptAt")
+    List<TransactionOutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable page);
+
+    // submitted rows whose lease ran out without a receipt go back to PENDING;
+    // the tx hash is kept so the next attempt checks for a late receipt first
+    @Modifying
+    @Query("UPDATE TransactionOutboxEvent e SET "
+            + "e.status = rs.example.carbon_traders.transaction.enums.OutboxStatus.PENDING, "
+            + "e.updatedAt = :now "
+            + "WHERE e.status = rs.example.carbon_traders.transaction.enums.OutboxStatus.SUBMITTED "
+            + "AND e.nextAttemptAt <= :now")
+    int releaseExpiredLeases(@Param("now") LocalDateTime now);
+
+    // takes the row for one attempt, returns 0 when another relay got there first
+    // or the row has already moved past PENDING
+    @Modifying
+    @Query("UPDATE TransactionOutboxEvent e SET "
+            + "e.attempts = e.attempts + 1, "
+            + "e.nextAttemptAt = :leaseUntil, "
+            + "e.updatedAt = :now "
+            + "WHERE e.id = :id AND e.attempts = :attempts AND e.nextAttemptAt <= :now "
+            + "AND e.status = rs.example.carbon_traders.transaction.enums.OutboxStatus.PENDING")
+    int claim(@Param("id") Long id,
+              @Param("attempts") Integer attempts,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    long countByStatus(OutboxStatus status);
+}
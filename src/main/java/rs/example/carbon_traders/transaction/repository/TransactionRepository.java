@@ -1,10 +1,20 @@
 package rs.example.carbon_traders.transaction.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import rs.example.carbon_traders.transaction.dto.TransactionSummary;
 import rs.example.carbon_traders.transaction.entity.CreditTransaction;
 import rs.example.carbon_traders.company.entity.Company;
 import rs.example.carbon_traders.farmer.entity.Farmer;
@@ -17,5 +27,58 @@ public interface TransactionRepository extends JpaRepository<CreditTransaction,
     List<CreditTransaction> findByFarmer(Farmer farmer);
 
     List<CreditTransaction> findByStatus(String status);
+
+    // filled in by the outbox relay once the trade is recorded on chain
+    @Modifying
+    @Query("UPDATE CreditTransaction t SET t.blockchainTxHash = :txHash WHERE t.id = :id")
+    int updateBlockchainTxHash(@Param("id") Long id, @Param("txHash") String txHash);
+
+    // purchase / sales history, newest first, keyset page with no entity graph
+    @Query("SELECT new rs.example.carbon_traders.transaction.dto.TransactionSummary("
+            + "t.id, c.id, c.companyName, t.farmer.id, t.carbonCredit.id, "
+            + "t.creditsPurchased, t.pricePerCredit, t.totalAmount, t.status, "
+            + "t.blockchainTxHash, t.createdAt) "
+            + "FROM CreditTransaction t JOIN t.company c "
+            + "WHERE c.id = :companyId AND t.id < :before ORDER BY t.id DESC")
+    List<TransactionSummary> findSummariesByCompanyIdBefore(@Param("companyId") Long companyId,
+                                                            @Param("before") Long before,
+                                                            Pageable page);
+
+    @Query("SELECT new rs.example.carbon_traders.transaction.dto.TransactionSummary("
+            + "t.id, c.id, c.companyName, t.farmer.id, t.carbonCredit.id, "
+            + "t.creditsPurchased, t.pricePerCredit, t.totalAmount, t.status, "
+            + "t.blockchainTxHash, t.createdAt) "
+            + "FROM CreditTransaction t JOIN t.company c "
+            + "WHERE t.farmer.id = :farmerId AND t.id < :before ORDER BY t.id DESC")
+    List<TransactionSummary> findSummariesByFarmerIdBefore(@Param("farmerId") Long farmerId,
+                                                           @Param("before") Long before,
+                                                           Pageable page);
+
+    // newest first, keyset page on the primary key
+    @Query("SELECT new rs.example.carbon_traders.transaction.dto.TransactionSummary("
+            + "t.id, c.id, c.companyName, t.farmer.id, t.carbonCredit.id, "
+            + "t.creditsPurchased, t.pricePerCredit, t.totalAmount, t.status, "
+            + "t.blockchainTxHash, t.createdAt) "
+            + "FROM CreditTransaction t JOIN t.company c "
+            + "WHERE t.id < :before ORDER BY t.id DESC")
+    List<TransactionSummary> findSummariesBefore(@Param("before") Long before, Pageable page);
+
+    // forward-only cursor for the ledger export, consume inside a transaction and close it.
+    // MySQL only streams with useCursorFetch=true on the url, otherwise it buffers the result
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new rs.example.carbon_traders.transaction.dto.TransactionSummary("
+            + "t.id, c.id, c.companyName, t.farmer.id, t.carbonCredit.id, "
+            + "t.creditsPurchased, t.pricePerCredit, t.totalAmount, t.status, "
+            + "t.blockchainTxHash, t.createdAt) "
+            + "FROM CreditTransaction t JOIN t.company c "
+            + "WHERE t.createdAt >= :from AND t.createdAt < :to "
+            + "AND (:companyId IS NULL OR c.id = :companyId) "
+            + "ORDER BY t.id")
+    Stream<TransactionSummary> streamSummaries(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("companyId") Long companyId);
 }
 
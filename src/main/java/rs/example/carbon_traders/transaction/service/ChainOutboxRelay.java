@@ -0,0 +1,212 @@
+package rs.example.carbon_traders.transaction.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import rs.example.carbon_traders.blockchain.service.BlockchainService;
+import rs.example.carbon_traders.blockchain.service.ChainOperation;
+import rs.example.carbon_traders.transaction.entity.TransactionOutboxEvent;
+import rs.example.carbon_traders.transaction.enums.OutboxStatus;
+import rs.example.carbon_traders.transaction.repository.TransactionOutboxRepository;
+import rs.example.carbon_traders.transaction.repository.TransactionRepository;
+
+/**
+ * Drains the transaction outbox to the chain. Each due row is claimed for one attempt
+ * (a lease, so a crashed relay's rows come back), queued on the submission pipeline
+ * under its idempotency key, and settled from the receipt: the tx hash is written back
+ * to the CreditTransaction, or the row is rescheduled with exponential backoff.
+ *
+ * Off unless blockchain.outbox.enabled is set. It polls on its own thread because the
+ * receipt lookups block on RPC and must not hold up the shared @Scheduled thread.
+ */
+@Slf4j
+@Component
+public class ChainOutboxRelay {
+
+    private final TransactionOutboxRepository outboxRepository;
+    private final TransactionRepository transactionRepository;
+    private final BlockchainService blockchainService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffBaseMillis;
+    private final long backoffMaxMillis;
+    private final long leaseMillis;
+    private final boolean enabled;
+    private final long pollIntervalMillis;
+
+    private ScheduledExecutorService poller;
+
+    public ChainOutboxRelay(TransactionOutboxRepository outboxRepository,
+                            TransactionRepository transactionRepository,
+                            BlockchainService blockchainService,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${blockchain.outbox.batch-size:100}") int batchSize,
+                            @Value("${blockchain.outbox.max-attempts:12}") int maxAttempts,
+                            @Value("${blockchain.outbox.backoff-base-ms:1000}") long backoffBaseMillis,
+                            @Value("${blockchain.outbox.backoff-max-ms:300000}") long backoffMaxMillis,
+                            @Value("${blockchain.outbox.lease-ms:900000}") long leaseMillis,
+                            @Value("${blockchain.outbox.enabled:false}") boolean enabled,
+                            @Value("${blockchain.outbox.poll-interval-ms:1000}") long pollIntervalMillis) {
+        this.outboxRepository = outboxRepository;
+        this.transactionRepository = transactionRepository;
+        this.blockchainService = blockchainService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMillis = backoffBaseMillis;
+        this.backoffMaxMillis = backoffMaxMillis;
+        this.leaseMillis = leaseMillis;
+        this.enabled = enabled;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Chain outbox relay disabled, trades stay queued in the outbox");
+            return;
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chain-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollSafely, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    // an exception escaping a scheduled task would cancel every later run
+    private void pollSafely() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.warn("Chain outbox poll failed", e);
+        }
+    }
+
+    public void relay() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plusNanos(leaseMillis * 1_000_000);
+
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.releaseExpiredLeases(now));
+
+        for (TransactionOutboxEvent event : outboxRepository.findDue(now, PageRequest.ofSize(batchSize))) {
+            Integer claimed = transactionTemplate.execute(status ->
+                    outboxRepository.claim(event.getId(), event.getAttempts(), now, leaseUntil));
+            if (claimed == null || claimed == 0) {
+                continue;
+            }
+            send(event, event.getAttempts() + 1);
+        }
+    }
+
+    private void send(TransactionOutboxEvent event, int attempt) {
+        Long id = event.getId();
+        Long creditTransactionId = event.getCreditTransactionId();
+        try {
+            // an earlier attempt may have been mined after its lease ran out
+            if (event.getTxHash() != null) {
+                Optional<TransactionReceipt> receipt = blockchainService.findReceipt(event.getTxHash());
+                if (receipt.isPresent() && receipt.get().isStatusOK()) {
+                    confirmed(id, creditTransactionId, event.getTxHash());
+                    return;
+                }
+            }
+
+            ChainOperation operation = blockchainService.recordTrade(
+                    event.getIdempotencyKey(),
+                    event.getCarbonCreditId(),
+                    event.getCredits(),
+                    event.getExecutedAt().atZone(ZoneId.systemDefault()).toEpochSecond());
+
+            operation.getSubmitted().thenAccept(txHash -> submitted(id, attempt, txHash));
+            operation.getConfirmed().whenComplete((receipt, error) -> {
+                if (error == null) {
+                    confirmed(id, creditTransactionId, receipt.getTransactionHash());
+                } else {
+                    failed(id, attempt, error);
+                }
+            });
+        } catch (Exception e) {
+            failed(id, attempt, e);
+        }
+    }
+
+    // state changes, callbacks from a superseded attempt are ignored
+
+    private void submitted(Long id, int attempt, String txHash) {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.findById(id)
+                        .filter(event -> event.getAttempts() == attempt && event.getStatus() != OutboxStatus.CONFIRMED)
+                        .ifPresent(event -> {
+                            event.setStatus(OutboxStatus.SUBMITTED);
+                            event.setTxHash(txHash);
+                            event.setUpdatedAt(LocalDateTime.now());
+                        }));
+    }
+
+    private void confirmed(Long id, Long creditTransactionId, String txHash) {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxRepository.findById(id).ifPresent(event -> {
+                event.setStatus(OutboxStatus.CONFIRMED);
+                event.setTxHash(txHash);
+                event.setLastError(null);
+                event.setUpdatedAt(LocalDateTime.now());
+            });
+            transactionRepository.updateBlockchainTxHash(creditTransactionId, txHash);
+        });
+        log.info("Trade recorded on chain | transaction: {} | TxHash: {}", creditTransactionId, txHash);
+    }
+
+    private void failed(Long id, int attempt, Throwable error) {
+        String message = String.valueOf(error.getMessage());
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.findById(id)
+                        .filter(event -> event.getAttempts() == attempt && event.getStatus() != OutboxStatus.CONFIRMED)
+                        .ifPresent(event -> {
+                            LocalDateTime now = LocalDateTime.now();
+                            event.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+                            event.setUpdatedAt(now);
+
+                            if (attempt >= maxAttempts) {
+                                event.setStatus(OutboxStatus.FAILED);
+                                log.error("Giving up on chain record {} after {} attempts: {}",
+                                        event.getIdempotencyKey(), attempt, message);
+                                return;
+                            }
+                            long delay = backoff(attempt);
+                            event.setStatus(OutboxStatus.PENDING);
+                            event.setNextAttemptAt(now.plusNanos(delay * 1_000_000));
+                            log.warn("Chain record {} failed (attempt {}/{}), retrying in {} ms: {}",
+                                    event.getIdempotencyKey(), attempt, maxAttempts, delay, message);
+                        }));
+    }
+
+    // exponential with jitter, so rows that failed together do not retry together
+    private long backoff(int attempt) {
+        long delay = Math.min(backoffMaxMillis, backoffBaseMillis << Math.min(attempt - 1, 30));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+}
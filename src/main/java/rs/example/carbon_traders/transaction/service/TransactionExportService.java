@@ -0,0 +1,114 @@
+package rs.example.carbon_traders.transaction.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rs.example.carbon_traders.transaction.dto.TransactionSummary;
+import rs.example.carbon_traders.transaction.enums.ExportFormat;
+import rs.example.carbon_traders.transaction.repository.TransactionRepository;
+
+/**
+ * Writes the transaction ledger straight to an output stream from a forward-only cursor.
+ * Rows are DTO projections, so the persistence context stays empty and heap use is flat
+ * no matter how many rows are exported.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final String CSV_HEADER =
+            "id,companyId,companyName,farmerId,carbonCreditId,creditsPurchased,"
+                    + "pricePerCredit,totalAmount,status,blockchainTxHash,createdAt\n";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public TransactionExportService(TransactionRepository transactionRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // the stream needs an open transaction for as long as rows are read
+    public void export(ExportFormat format,
+                       LocalDateTime from,
+                       LocalDateTime to,
+                       Long companyId,
+                       OutputStream target) {
+
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<TransactionSummary> rows =
+                         transactionRepository.streamSummaries(from, to, companyId)) {
+
+                OutputStream out = new BufferedOutputStream(target, 64 * 1024);
+                if (format == ExportFormat.CSV) {
+                    out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+                }
+
+                Iterator<TransactionSummary> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    TransactionSummary row = iterator.next();
+                    if (format == ExportFormat.CSV) {
+                        out.write(toCsv(row).getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        out.write(objectMapper.writeValueAsBytes(row));
+                        out.write('\n');
+                    }
+                }
+                out.flush();
+
+            } catch (IOException e) {
+                throw new UncheckedIOException("Transaction export failed", e);
+            }
+        });
+    }
+
+    // helpers
+
+    private String toCsv(TransactionSummary row) {
+        return new StringBuilder(160)
+                .append(row.getId()).append(',')
+                .append(row.getCompanyId()).append(',')
+                .append(csv(row.getCompanyName())).append(',')
+                .append(row.getFarmerId()).append(',')
+                .append(row.getCarbonCreditId()).append(',')
+                .append(value(row.getCreditsPurchased())).append(',')
+                .append(value(row.getPricePerCredit())).append(',')
+                .append(value(row.getTotalAmount())).append(',')
+                .append(csv(row.getStatus())).append(',')
+                .append(csv(row.getBlockchainTxHash())).append(',')
+                .append(value(row.getCreatedAt())).append('\n')
+                .toString();
+    }
+
+    private String value(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    // RFC 4180 quoting
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
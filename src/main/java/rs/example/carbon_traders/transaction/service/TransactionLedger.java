@@ -0,0 +1,292 @@
+package rs.example.carbon_traders.transaction.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rs.example.carbon_traders.admin.service.PlatformStatsService;
+import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
+import rs.example.carbon_traders.carboncredit.repository.CarbonCreditRepository;
+import rs.example.carbon_traders.carboncredit.service.CarbonCreditService;
+import rs.example.carbon_traders.common.exception.BusinessException;
+import rs.example.carbon_traders.common.exception.ServiceBusyException;
+import rs.example.carbon_traders.common.transaction.RetryingTransactionExecutor;
+import rs.example.carbon_traders.company.entity.Company;
+import rs.example.carbon_traders.company.repository.CompanyRepository;
+import rs.example.carbon_traders.farmer.entity.Farmer;
+import rs.example.carbon_traders.transaction.entity.CreditTransaction;
+import rs.example.carbon_traders.transaction.repository.TransactionRepository;
+
+/**
+ * Write-behind ledger for DB-path purchases. A purchase is queued as one unit (lot
+ * decrement, CreditTransaction row, chain outbox row, buyer total) in a bounded ring
+ * buffer, and a single flusher applies up to batch-size units in one transaction once
+ * they are waiting or flush-interval-ms has passed, so the rows go out as multi-row
+ * JDBC batches. The future of each unit completes only after its batch committed.
+ * A failing batch is rolled back and its units are replayed one by one, so one bad
+ * unit fails alone.
+ */
+@Slf4j
+@Component
+public class TransactionLedger {
+
+    private final TransactionRepository transactionRepository;
+    private final CarbonCreditRepository carbonCreditRepository;
+    private final CarbonCreditService carbonCreditService;
+    private final TransactionOutbox transactionOutbox;
+    private final CompanyRepository companyRepository;
+    private final PlatformStatsService platformStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryingTransactionExecutor retryingTransactionExecutor;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long ackTimeoutMillis;
+
+    private final BlockingQueue<Entry> ringBuffer;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public TransactionLedger(TransactionRepository transactionRepository,
+                             CarbonCreditRepository carbonCreditRepository,
+                             CarbonCreditService carbonCreditService,
+                             TransactionOutbox transactionOutbox,
+                             CompanyRepository companyRepository,
+                             PlatformStatsService platformStatsService,
+                             TransactionTemplate transactionTemplate,
+                             RetryingTransactionExecutor retryingTransactionExecutor,
+                             @Value("${ledger.capacity:8192}") int capacity,
+                             @Value("${ledger.batch-size:50}") int batchSize,
+                             @Value("${ledger.flush-interval-ms:10}") long flushIntervalMillis,
+                             @Value("${ledger.ack-timeout-ms:5000}") long ackTimeoutMillis) {
+        this.transactionRepository = transactionRepository;
+        this.carbonCreditRepository = carbonCreditRepository;
+        this.carbonCreditService = carbonCreditService;
+        this.transactionOutbox = transactionOutbox;
+        this.companyRepository = companyRepository;
+        this.platformStatsService = platformStatsService;
+        this.transactionTemplate = transactionTemplate;
+        this.retryingTransactionExecutor = retryingTransactionExecutor;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.ringBuffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runLoop, "transaction-ledger");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+
+        List<Entry> rest = new ArrayList<>();
+        ringBuffer.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    // append
+
+    public CompletableFuture<CreditTransaction> append(Purchase purchase) {
+        // rejected before queueing, a negative unit would otherwise fail its whole batch
+        Double credits = purchase.credits();
+        if (credits == null || !(credits > 0) || credits.isInfinite()) {
+            throw new BusinessException("Credits to buy must be a positive number");
+        }
+
+        Entry entry = new Entry(purchase, LocalDateTime.now(), new CompletableFuture<>());
+        try {
+            // back-pressure: a full buffer means the DB is behind, fail instead of piling up
+            if (!ringBuffer.offer(entry, ackTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServiceBusyException("Purchases are queued up, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while queueing purchase");
+        }
+        return entry.ack();
+    }
+
+    // blocks until the purchase is committed or rejected
+    public CreditTransaction await(CompletableFuture<CreditTransaction> ack) {
+        try {
+            return ack.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Failed to record purchase", e.getCause());
+        } catch (TimeoutException e) {
+            // the unit is still queued and may yet commit, a blind retry could buy twice
+            throw new ServiceBusyException("Purchase is still being recorded, check your transactions before retrying");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while recording purchase");
+        }
+    }
+
+    public int backlog() {
+        return ringBuffer.size();
+    }
+
+    // flusher thread
+
+    private void runLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(ringBuffer.take());
+
+                // keep collecting until the batch is full or the window closes
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    ringBuffer.drainTo(batch, batchSize - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || left <= 0) {
+                        break;
+                    }
+                    Entry next = ringBuffer.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // stop() flushes what is left, including this batch
+                ringBuffer.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    private void flush(List<Entry> batch) {
+        List<Outcome> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> apply(batch));
+        } catch (RuntimeException e) {
+            log.warn("Ledger batch of {} purchases failed, replaying them one by one", batch.size(), e);
+            for (Entry entry : batch) {
+                flushOne(entry);
+            }
+            return;
+        }
+        // committed, only now are the purchases acknowledged
+        for (int i = 0; i < batch.size(); i++) {
+            outcomes.get(i).complete(batch.get(i).ack());
+        }
+    }
+
+    // own transaction, replayed on a version conflict
+    private void flushOne(Entry entry) {
+        try {
+            retryingTransactionExecutor.execute(() -> apply(List.of(entry))).get(0).complete(entry.ack());
+        } catch (RuntimeException e) {
+            entry.ack().completeExceptionally(e);
+        }
+    }
+
+    // runs inside the batch transaction; a short or missing lot rejects its unit without
+    // throwing, anything thrown rolls the whole batch back
+    private List<Outcome> apply(List<Entry> batch) {
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        List<CreditTransaction> rows = new ArrayList<>(batch.size());
+        Map<Long, Double> purchasedByCompany = new HashMap<>();
+
+        // every decrement first: the conditional UPDATE clears the persistence context
+        for (Entry entry : batch) {
+            Purchase purchase = entry.purchase();
+            Long lotId = purchase.carbonCredit().getId();
+
+            CarbonCredit lot = carbonCreditRepository.findById(lotId).orElse(null);
+            if (lot == null) {
+                outcomes.add(Outcome.rejected(new BusinessException("Carbon credit not found")));
+                continue;
+            }
+            if (lot.getAvailableCredits() < purchase.credits()) {
+                outcomes.add(Outcome.rejected(new BusinessException("Not enough credits available")));
+                continue;
+            }
+
+            // Step 1: Update carbon credit balance
+            carbonCreditService.buyCredits(lotId, purchase.company(), purchase.credits());
+
+            CreditTransaction row = CreditTransaction.builder()
+                    .company(purchase.company())
+                    .farmer(purchase.farmer())
+                    .carbonCredit(purchase.carbonCredit())
+                    .creditsPurchased(purchase.credits())
+                    .pricePerCredit(purchase.carbonCredit().getPricePerCredit())
+                    .totalAmount(purchase.credits() * purchase.carbonCredit().getPricePerCredit())
+                    .status("SUCCESS")
+                    .createdAt(entry.queuedAt())
+                    .build();
+            rows.add(row);
+            outcomes.add(Outcome.recorded(row));
+            purchasedByCompany.merge(purchase.company().getId(), purchase.credits(), Double::sum);
+        }
+
+        // one multi-row insert each for the trades and their outbox rows
+        transactionRepository.saveAll(rows);
+        transactionOutbox.record(rows);
+        purchasedByCompany.forEach((companyId, credits) -> {
+            // single UPDATE, concurrent buyers of one company need no lock
+            companyRepository.addPurchasedCredits(companyId, credits);
+            platformStatsService.creditsPurchased(credits);
+        });
+        return outcomes;
+    }
+
+    // one purchase unit, the entities are only used for their ids and price
+    public record Purchase(Company company, Farmer farmer, CarbonCredit carbonCredit, Double credits) {
+    }
+
+    private record Entry(Purchase purchase, LocalDateTime queuedAt, CompletableFuture<CreditTransaction> ack) {
+    }
+
+    private record Outcome(CreditTransaction transaction, RuntimeException rejection) {
+
+        static Outcome recorded(CreditTransaction transaction) {
+            return new Outcome(transaction, null);
+        }
+
+        static Outcome rejected(RuntimeException rejection) {
+            return new Outcome(null, rejection);
+        }
+
+        void complete(CompletableFuture<CreditTransaction> ack) {
+            if (rejection != null) {
+                ack.completeExceptionally(rejection);
+            } else {
+                ack.complete(transaction);
+            }
+        }
+    }
+}
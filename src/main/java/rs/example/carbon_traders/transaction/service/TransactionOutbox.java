@@ -0,0 +1,49 @@
+package rs.example.carbon_traders.transaction.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import rs.example.carbon_traders.transaction.entity.CreditTransaction;
+import rs.example.carbon_traders.transaction.entity.TransactionOutboxEvent;
+import rs.example.carbon_traders.transaction.enums.OutboxStatus;
+import rs.example.carbon_traders.transaction.repository.TransactionOutboxRepository;
+
+/**
+ * Writes the outbox rows for freshly saved CreditTransactions. Must run inside the
+ * transaction that inserts them, so a trade and its pending chain record commit or
+ * roll back together; ChainOutboxRelay sends them afterwards.
+ */
+@Component
+public class TransactionOutbox {
+
+    private final TransactionOutboxRepository outboxRepository;
+
+    public TransactionOutbox(TransactionOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<CreditTransaction> transactions) {
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionOutboxEvent> events = new ArrayList<>(transactions.size());
+        for (CreditTransaction transaction : transactions) {
+            events.add(TransactionOutboxEvent.builder()
+                    .idempotencyKey("trade-" + transaction.getId())
+                    .creditTransactionId(transaction.getId())
+                    .carbonCreditId(transaction.getCarbonCredit().getId())
+                    .credits(transaction.getCreditsPurchased())
+                    .executedAt(transaction.getCreatedAt() == null ? now : transaction.getCreatedAt())
+                    .status(OutboxStatus.PENDING)
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        outboxRepository.saveAll(events);
+    }
+}
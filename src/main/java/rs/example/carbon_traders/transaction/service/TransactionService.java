@@ -1,73 +1,136 @@
 package rs.example.carbon_traders.transaction.service;
 
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import rs.example.carbon_traders.transaction.entity.CreditTransaction;
 import rs.example.carbon_traders.transaction.repository.TransactionRepository;
 import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
-import rs.example.carbon_traders.carboncredit.service.CarbonCreditService;
+import rs.example.carbon_traders.common.lock.LockDomain;
+import rs.example.carbon_traders.common.response.CursorPage;
+import rs.example.carbon_traders.common.lock.StripedLockManager;
 import rs.example.carbon_traders.company.entity.Company;
+import rs.example.carbon_traders.company.repository.CompanyRepository;
 import rs.example.carbon_traders.farmer.entity.Farmer;
+import rs.example.carbon_traders.farmer.repository.FarmerRepository;
+import rs.example.carbon_traders.transaction.dto.TransactionSummary;
+import rs.example.carbon_traders.trading.engine.MatchingEngine;
+import rs.example.carbon_traders.trading.model.MatchResult;
 
 @Service
 @Transactional
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
-    private final CarbonCreditService carbonCreditService;
+    private final MatchingEngine matchingEngine;
+    private final StripedLockManager lockManager;
+    private final TransactionLedger transactionLedger;
+    private final CompanyRepository companyRepository;
+    private final FarmerRepository farmerRepository;
 
     public TransactionService(TransactionRepository transactionRepository,
-                              CarbonCreditService carbonCreditService) {
+                              MatchingEngine matchingEngine,
+                              StripedLockManager lockManager,
+                              TransactionLedger transactionLedger,
+                              CompanyRepository companyRepository,
+                              FarmerRepository farmerRepository) {
         this.transactionRepository = transactionRepository;
-        this.carbonCreditService = carbonCreditService;
+        this.matchingEngine = matchingEngine;
+        this.lockManager = lockManager;
+        this.transactionLedger = transactionLedger;
+        this.companyRepository = companyRepository;
+        this.farmerRepository = farmerRepository;
     }
 
     // buy cradit
-
+    // no surrounding transaction: the DB path queues the whole purchase (balance change,
+    // transaction row, chain outbox entry, buyer total) on the batched ledger and waits
+    // for its commit. Buyers of one lot enter the ledger in arrival order under the lot's
+    // lock; the wait for the commit happens after the lock is released
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CreditTransaction buyCarbonCredits(
             Company company,
             Farmer farmer,
             CarbonCredit carbonCredit,
             Double creditsToBuy) {
 
-        Double totalAmount = creditsToBuy * carbonCredit.getPricePerCredit();
+        // matched in memory, the row is written by the TradeRecorder in the background
+        if (matchingEngine.isEnabled()) {
+            return matchingEngine.buyLot(
+                    carbonCredit.getId(),
+                    company.getId(),
+                    creditsToBuy,
+                    fill -> CreditTransaction.builder()
+                            .company(company)
+                            .farmer(farmer)
+                            .carbonCredit(carbonCredit)
+                            .creditsPurchased(fill.getQuantity())
+                            .pricePerCredit(fill.getPricePerCredit())
+                            .totalAmount(fill.getTotalAmount())
+                            .status("SUCCESS")
+                            .createdAt(fill.getExecutedAt())
+                            .build()
+            );
+        }
+
+        TransactionLedger.Purchase purchase =
+                new TransactionLedger.Purchase(company, farmer, carbonCredit, creditsToBuy);
+        CompletableFuture<CreditTransaction> ack = lockManager.withLock(
+                LockDomain.CARBON_CREDIT, carbonCredit.getId(), () -> transactionLedger.append(purchase));
+        return transactionLedger.await(ack);
+    }
+
+    // limit order across all listed lots, best price first then oldest lot first
+    public MatchResult placeBuyOrder(
+            Company company,
+            Double limitPrice,
+            Double creditsToBuy,
+            boolean immediateOrCancel) {
 
-        // Step 1: Update carbon credit balance
-        carbonCreditService.buyCredits(
-                carbonCredit.getId(),
-                company,
-                creditsToBuy
+        return matchingEngine.placeBuy(
+                company.getId(),
+                limitPrice,
+                creditsToBuy,
+                immediateOrCancel
         );
-        // record
-        CreditTransaction transaction = CreditTransaction.builder()
-                .company(company)
-                .farmer(farmer)
-                .carbonCredit(carbonCredit)
-                .creditsPurchased(creditsToBuy)
-                .pricePerCredit(carbonCredit.getPricePerCredit())
-                .totalAmount(totalAmount)
-                .status("SUCCESS")
-                .createdAt(LocalDateTime.now())
-                .build();
-
-        return transactionRepository.save(transaction);
     }
     // fetxh
 
-    public List<CreditTransaction> getTransactionsByCompany(Company company) {
-        return transactionRepository.findByCompany(company);
+    // history is served as projections, newest first, cursor is the last transaction id
+    // of the previous page; the owner comes from the logged-in user's email
+
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionSummary> getTransactionsByCompany(String email, Long cursor, int size) {
+        Long companyId = companyRepository.findIdByUserEmail(email)
+                .orElseThrow(() -> new RuntimeException("Company profile not found"));
+        int pageSize = CursorPage.clampSize(size);
+        List<TransactionSummary> rows = transactionRepository.findSummariesByCompanyIdBefore(
+                companyId, cursor == null ? Long.MAX_VALUE : cursor, PageRequest.ofSize(pageSize + 1));
+        return CursorPage.of(rows, pageSize, TransactionSummary::getId);
     }
 
-    public List<CreditTransaction> getTransactionsByFarmer(Farmer farmer) {
-        return transactionRepository.findByFarmer(farmer);
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionSummary> getTransactionsByFarmer(String email, Long cursor, int size) {
+        Long farmerId = farmerRepository.findIdByUserEmail(email)
+                .orElseThrow(() -> new RuntimeException("Farmer profile not found"));
+        int pageSize = CursorPage.clampSize(size);
+        List<TransactionSummary> rows = transactionRepository.findSummariesByFarmerIdBefore(
+                farmerId, cursor == null ? Long.MAX_VALUE : cursor, PageRequest.ofSize(pageSize + 1));
+        return CursorPage.of(rows, pageSize, TransactionSummary::getId);
     }
 
-    public List<CreditTransaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    // newest first, cursor is the last transaction id of the previous page
+    @Transactional(readOnly = true)
+    public CursorPage<TransactionSummary> getTransactions(Long cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        List<TransactionSummary> rows = transactionRepository.findSummariesBefore(
+                cursor == null ? Long.MAX_VALUE : cursor, PageRequest.ofSize(pageSize + 1));
+        return CursorPage.of(rows, pageSize, TransactionSummary::getId);
     }
 }
 
@@ -1,10 +1,15 @@
 package rs.example.carbon_traders.user.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+import rs.example.carbon_traders.user.service.UserPrincipalCacheListener;
+
 @Entity
 @Table(name = "users")
+@EntityListeners(UserPrincipalCacheListener.class)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
 
     @Id
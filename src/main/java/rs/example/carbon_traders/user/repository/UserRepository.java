@@ -3,7 +3,11 @@ package rs.example.carbon_traders.user.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import rs.example.carbon_traders.user.entity.User;
 
@@ -15,5 +19,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // Check if email already exists (used during registration)
     boolean existsByEmail(String email);
+
+    // cost-factor migration on login, touches only the hash
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
 
@@ -0,0 +1,96 @@
+package rs.example.carbon_traders.user.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import rs.example.carbon_traders.user.entity.User;
+import rs.example.carbon_traders.user.repository.UserRepository;
+
+/**
+ * Login-relevant fields of a user keyed by email, so repeated logins do not hit
+ * users.email every time. Bounded LRU with a short TTL. Entity writes to a user evict
+ * it through UserPrincipalCacheListener; bulk updates must call invalidate.
+ *
+ * Metrics: auth.principal.cache.hits, auth.principal.cache.misses.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMs;
+    private final Map<String, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserPrincipalCache(UserRepository userRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${security.principal-cache.max-entries:10000}") int maxEntries,
+                              @Value("${security.principal-cache.ttl-ms:60000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.ttlMs = ttlMs;
+
+        // access-ordered LinkedHashMap evicts the least recently used entry
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.hits = meterRegistry.counter("auth.principal.cache.hits");
+        this.misses = meterRegistry.counter("auth.principal.cache.misses");
+    }
+
+    // unknown emails are not cached, so a later registration is seen immediately
+    public Optional<UserPrincipal> get(String email) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry != null && entry.cachedUntil > now) {
+                hits.increment();
+                return Optional.of(entry.principal);
+            }
+        }
+
+        misses.increment();
+        Optional<UserPrincipal> loaded = userRepository.findByEmail(email).map(UserPrincipal::of);
+        loaded.ifPresent(principal -> {
+            synchronized (entries) {
+                entries.put(email, new Entry(principal, now + ttlMs));
+            }
+        });
+        return loaded;
+    }
+
+    public void invalidate(String email) {
+        synchronized (entries) {
+            entries.remove(email);
+        }
+    }
+
+    public record UserPrincipal(Long id,
+                                String email,
+                                String passwordHash,
+                                String role,
+                                boolean active) {
+
+        static UserPrincipal of(User user) {
+            return new UserPrincipal(
+                    user.getId(),
+                    user.getEmail(),
+                    user.getPassword(),
+                    user.getRole().name(),
+                    user.isActive());
+        }
+    }
+
+    private record Entry(UserPrincipal principal, long cachedUntil) {
+    }
+}
@@ -0,0 +1,30 @@
+package rs.example.carbon_traders.user.service;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+import rs.example.carbon_traders.common.transaction.AfterCommit;
+import rs.example.carbon_traders.user.entity.User;
+
+// drops a user's cached principal on every entity write, so a password, role or active
+// flag change made anywhere is seen by the next login. Evicted again after commit in
+// case a login reloaded the old row in between. Bulk JPQL updates bypass this and must
+// invalidate themselves (see UserService.rehash)
+@Component
+public class UserPrincipalCacheListener {
+
+    private final UserPrincipalCache userPrincipalCache;
+
+    public UserPrincipalCacheListener(UserPrincipalCache userPrincipalCache) {
+        this.userPrincipalCache = userPrincipalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void changed(User user) {
+        String email = user.getEmail();
+        userPrincipalCache.invalidate(email);
+        AfterCommit.run(() -> userPrincipalCache.invalidate(email));
+    }
+}
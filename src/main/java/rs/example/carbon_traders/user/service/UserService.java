@@ -2,25 +2,35 @@ package rs.example.carbon_traders.user.service;
 
 import java.util.Optional;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import rs.example.carbon_traders.admin.service.PlatformStatsService;
 import rs.example.carbon_traders.auth.dto.RegisterRequest;
+import rs.example.carbon_traders.common.exception.ServiceBusyException;
 import rs.example.carbon_traders.user.entity.User;
 import rs.example.carbon_traders.user.enums.Role;
 import rs.example.carbon_traders.user.repository.UserRepository;
+import rs.example.carbon_traders.user.service.UserPrincipalCache.UserPrincipal;
 
+@Slf4j
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final PlatformStatsService platformStatsService;
+    private final UserPrincipalCache userPrincipalCache;
 
     // Constructor Injection (Best Practice)
     public UserService(UserRepository userRepository,
-                       BCryptPasswordEncoder passwordEncoder) {
+                       PasswordHasher passwordHasher,
+                       PlatformStatsService platformStatsService,
+                       UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.platformStatsService = platformStatsService;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     // ===================== USER REGISTRATION =====================
@@ -41,12 +51,14 @@ public class UserService {
         User user = new User();
         user.setFullName(request.getName());
         user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHasher.encode(request.getPassword()));
         user.setRole(role);
         user.setActive(true);
 
         //  Save to DB
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        platformStatsService.userRegistered();
+        return saved;
     }
 
     //  FIND USER BY EMAIL
@@ -56,21 +68,41 @@ public class UserService {
     }
 
     // USER VALIDATION (LOGIN)
-    public User validateUser(String email, String rawPassword) {
+    // one lookup through the principal cache, the caller gets everything it needs
+    public UserPrincipal validateUser(String email, String rawPassword) {
 
-        User user = userRepository.findByEmail(email)
+        UserPrincipal user = userPrincipalCache.get(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!user.isActive()) {
+        if (!user.active()) {
             throw new RuntimeException("User account is disabled");
         }
 
-        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+        if (!passwordHasher.matches(rawPassword, user.passwordHash())) {
             throw new RuntimeException("Invalid credentials");
         }
 
+        // the cost factor was raised since this hash was made, upgrade it in the background
+        if (passwordHasher.needsRehash(user.passwordHash())) {
+            rehash(user, rawPassword);
+        }
+
         return user;
     }
-}
-
 
+    private void rehash(UserPrincipal user, String rawPassword) {
+        try {
+            passwordHasher.encodeAsync(rawPassword)
+                    .thenAccept(hash -> {
+                        userRepository.updatePassword(user.id(), hash);
+                        userPrincipalCache.invalidate(user.email());
+                    })
+                    .exceptionally(e -> {
+                        log.warn("Password rehash for user {} failed", user.id(), e);
+                        return null;
+                    });
+        } catch (ServiceBusyException e) {
+            // pool is full, the next login tries again
+        }
+    }
+}
@@ -1,48 +1,67 @@
 package rs.example.carbon_traders.common.util;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import rs.example.carbon_traders.common.storage.BlobRef;
+import rs.example.carbon_traders.common.storage.BlobStore;
+
+// uploads go to the content-addressed BlobStore: identical files are stored once and
+// the returned digest (SHA-256 of the bytes) is the file's id
+@Component
 public class FileUploadUtil {
 
-    private static final String BASE_UPLOAD_DIR = "uploads";
-//     * Save file to disk
+    private final BlobStore blobStore;
+    private final long maxUploadBytes;
+
+    public FileUploadUtil(BlobStore blobStore,
+                          @Value("${storage.max-upload-bytes:52428800}") long maxUploadBytes) {
+        this.blobStore = blobStore;
+        this.maxUploadBytes = maxUploadBytes;
+    }
+
+//     * Save file
 //     * @param file Multipart file from request
-//     * @param subDir folder name (farmer, company, soil-report etc.)
-//     * @return saved file path
-    public static String saveFile(MultipartFile file, String subDir) {
+//     * @return stored blob, takes one reference on it
+    public BlobRef saveFile(MultipartFile file) {
 
         if (file == null || file.isEmpty()) {
             throw new RuntimeException("File is empty or missing");
         }
 
-        try {
-            // Create base upload directory if not exists
-            Path uploadPath = Paths.get(BASE_UPLOAD_DIR, subDir);
-            Files.createDirectories(uploadPath);
+        if (file.getSize() > maxUploadBytes) {
+            throw new RuntimeException("File is larger than " + maxUploadBytes + " bytes");
+        }
 
-            // Create unique file name
-            String originalFileName = file.getOriginalFilename();
-            String timestamp = LocalDateTime.now()
-                    .format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        // one pass: the part is hashed while it is written into the store
+        try {
+            return blobStore.put(file.getInputStream(), maxUploadBytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file", e);
+        }
+    }
 
-            String fileName = timestamp + "_" + originalFileName;
-            Path filePath = uploadPath.resolve(fileName);
+    // raw request body, streamed into the store without multipart buffering
+    public BlobRef saveStream(InputStream content, long declaredLength) {
 
-            // Save file
-            Files.copy(file.getInputStream(), filePath);
+        if (declaredLength > maxUploadBytes) {
+            throw new RuntimeException("File is larger than " + maxUploadBytes + " bytes");
+        }
+        return blobStore.put(content, maxUploadBytes);
+    }
 
-            return filePath.toString();
+    // readable file for consumers that need a path
+    public Path pathOf(BlobRef blob) {
+        return blobStore.localPath(blob.getDigest());
+    }
 
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to store file", e);
-        }
+    // drop the caller's reference, the file is deleted when nobody holds one
+    public void deleteFile(String digest) {
+        blobStore.release(digest);
     }
 }
-
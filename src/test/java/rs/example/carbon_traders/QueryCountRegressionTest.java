@@ -0,0 +1,155 @@
+package rs.example.carbon_traders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
+import rs.example.carbon_traders.carboncredit.enums.MarketplaceSort;
+import rs.example.carbon_traders.carboncredit.repository.CarbonCreditRepository;
+import rs.example.carbon_traders.carboncredit.service.CarbonCreditService;
+import rs.example.carbon_traders.carboncredit.service.MarketplaceView;
+import rs.example.carbon_traders.company.entity.Company;
+import rs.example.carbon_traders.company.repository.CompanyRepository;
+import rs.example.carbon_traders.farmer.entity.Farmer;
+import rs.example.carbon_traders.farmer.repository.FarmerRepository;
+import rs.example.carbon_traders.transaction.entity.CreditTransaction;
+import rs.example.carbon_traders.transaction.repository.TransactionRepository;
+import rs.example.carbon_traders.transaction.service.TransactionService;
+import rs.example.carbon_traders.user.repository.UserRepository;
+
+// marketplace and history listings must cost a fixed number of statements, however many rows
+@SpringBootTest(properties = {
+        "trading.engine.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class QueryCountRegressionTest {
+
+    private static final int ROWS = 20;
+
+    @Autowired
+    private CarbonCreditService carbonCreditService;
+
+    @Autowired
+    private MarketplaceView marketplaceView;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CarbonCreditRepository carbonCreditRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FarmerRepository farmerRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Company company;
+    private Farmer farmer;
+
+    @BeforeEach
+    void seed() {
+        TestAccounts accounts = new TestAccounts(userRepository, farmerRepository, companyRepository, "Query");
+        company = accounts.newCompany();
+        for (int i = 0; i < ROWS; i++) {
+            // a different farmer per lot so eager loading would show up as N extra selects
+            Farmer owner = accounts.newFarmer();
+            CarbonCredit lot = carbonCreditRepository.save(CarbonCredit.builder()
+                    .farmer(owner)
+                    .totalCredits(100.0)
+                    .availableCredits(100.0)
+                    .pricePerCredit(10.0)
+                    .status("GENERATED")
+                    .createdAt(LocalDateTime.now())
+                    .build());
+
+            transactionRepository.save(CreditTransaction.builder()
+                    .company(company)
+                    .farmer(owner)
+                    .carbonCredit(lot)
+                    .creditsPurchased(1.0)
+                    .pricePerCredit(10.0)
+                    .totalAmount(10.0)
+                    .status("SUCCESS")
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            farmer = owner;
+        }
+    }
+
+    // the view is filled once with the farmers joined in, then /marketplace never queries
+    @Test
+    void marketplaceLoadsInOneQueryAndBrowsesInNone() {
+        assertStatements(1, () -> {
+            marketplaceView.load();
+            return browseMarketplace();
+        });
+        assertStatements(0, this::browseMarketplace);
+    }
+
+    // the profile id lookup, then one query for the page
+    @Test
+    void companyHistoryIsTwoQueries() {
+        String email = company.getUser().getEmail();
+        assertStatements(2, () -> transactionService.getTransactionsByCompany(email, null, 100).getItems());
+    }
+
+    @Test
+    void farmerHistoryIsTwoQueries() {
+        String email = farmer.getUser().getEmail();
+        assertStatements(2, () -> transactionService.getTransactionsByFarmer(email, null, 100).getItems());
+    }
+
+    // runs the call and the JSON rendering inside one session, like open-in-view,
+    // so lazy loads triggered by serialization are counted too
+    private void assertStatements(long expected, Supplier<List<?>> call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<?> rows = call.get();
+            assertFalse(rows.isEmpty());
+            try {
+                objectMapper.writeValueAsString(rows);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(expected, statistics.getPrepareStatementCount());
+    }
+
+    private List<?> browseMarketplace() {
+        return carbonCreditService.searchMarketplace(
+                null, null, null, null, MarketplaceSort.PRICE_ASC, null, 100).getItems();
+    }
+}
@@ -0,0 +1,58 @@
+package rs.example.carbon_traders;
+
+import java.util.UUID;
+
+import rs.example.carbon_traders.company.entity.Company;
+import rs.example.carbon_traders.company.repository.CompanyRepository;
+import rs.example.carbon_traders.farmer.entity.Farmer;
+import rs.example.carbon_traders.farmer.repository.FarmerRepository;
+import rs.example.carbon_traders.user.entity.User;
+import rs.example.carbon_traders.user.enums.Role;
+import rs.example.carbon_traders.user.repository.UserRepository;
+
+// saves throwaway users with a farmer or company profile; every call gets a fresh email
+public class TestAccounts {
+
+    private final UserRepository userRepository;
+    private final FarmerRepository farmerRepository;
+    private final CompanyRepository companyRepository;
+    private final String label;
+
+    public TestAccounts(UserRepository userRepository,
+                        FarmerRepository farmerRepository,
+                        CompanyRepository companyRepository,
+                        String label) {
+        this.userRepository = userRepository;
+        this.farmerRepository = farmerRepository;
+        this.companyRepository = companyRepository;
+        this.label = label;
+    }
+
+    public Farmer newFarmer() {
+        Farmer farmer = new Farmer();
+        farmer.setUser(newUser(Role.FARMER));
+        farmer.setVillage("Test village");
+        farmer.setDistrict("Test district");
+        farmer.setState("Test state");
+        return farmerRepository.save(farmer);
+    }
+
+    public Company newCompany() {
+        String suffix = UUID.randomUUID().toString();
+        return companyRepository.save(Company.builder()
+                .companyName(label + " " + suffix)
+                .registrationNumber("REG-" + suffix)
+                .totalCreditsPurchased(0.0)
+                .user(newUser(Role.COMPANY))
+                .build());
+    }
+
+    public User newUser(Role role) {
+        User user = new User();
+        user.setFullName(label + " " + role);
+        user.setEmail(UUID.randomUUID() + "@" + label.toLowerCase() + ".test");
+        user.setPassword("x");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,151 @@
+package rs.example.carbon_traders.auth.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import rs.example.carbon_traders.auth.dto.RegisterRequest;
+import rs.example.carbon_traders.user.entity.User;
+import rs.example.carbon_traders.user.repository.UserRepository;
+import rs.example.carbon_traders.user.service.PasswordHasher;
+import rs.example.carbon_traders.user.service.UserPrincipalCache.UserPrincipal;
+import rs.example.carbon_traders.user.service.UserService;
+import rs.example.carbon_traders.util.JwtUtil;
+
+// logins per second and statements per login: the old two-lookup flow against the single
+// lookup in UserService.validateUser. The principal cache TTL is 0 so every login is cold,
+// and both paths check the password through PasswordHasher, BCrypt at cost 4, so the
+// lookups are the only difference. Refresh token issue is left out, the old flow had none
+@Slf4j
+@SpringBootTest(properties = {
+        "trading.engine.enabled=false",
+        "security.password.bcrypt-strength=4",
+        "security.principal-cache.ttl-ms=0",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.orm.jdbc.bind=INFO"
+})
+class LoginBenchmarkTest {
+
+    private static final int USERS = 50;
+    private static final int THREADS = 16;
+    private static final int LOGINS = 4000;
+    private static final String PASSWORD = "benchmark-secret";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<String> emails = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < USERS; i++) {
+            RegisterRequest request = new RegisterRequest();
+            request.setName("Bench " + i);
+            request.setEmail(UUID.randomUUID() + "@bench.test");
+            request.setPassword(PASSWORD);
+            request.setRole(i % 2 == 0 ? "FARMER" : "COMPANY");
+            emails.add(userService.registerUser(request).getEmail());
+        }
+    }
+
+    @Test
+    void coldLoginIsASingleLookup() throws Exception {
+        // warm up both paths (JIT, connection pool)
+        run(LOGINS / 4, this::legacyLogin);
+        run(LOGINS / 4, this::singleLookupLogin);
+
+        Result before = run(LOGINS, this::legacyLogin);
+        Result after = run(LOGINS, this::singleLookupLogin);
+
+        log.info("cold login before: {} logins/s, {} statements/login",
+                Math.round(before.perSecond()), before.statementsPerLogin());
+        log.info("cold login after:  {} logins/s, {} statements/login",
+                Math.round(after.perSecond()), after.statementsPerLogin());
+
+        assertTrue(before.statementsPerLogin() >= 2.0);
+        // a scheduled job may slip a statement into the window, never one per login
+        assertTrue(after.statementsPerLogin() >= 1.0 && after.statementsPerLogin() < 1.1,
+                "expected one lookup per cold login, got " + after.statementsPerLogin());
+    }
+
+    // what AuthController did before: validate with one lookup, then look the user up again for the role
+    private void legacyLogin(String email) {
+        User user = userRepository.findByEmail(email).orElseThrow();
+        if (!passwordHasher.matches(PASSWORD, user.getPassword())) {
+            throw new IllegalStateException("Invalid credentials");
+        }
+        jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+        userRepository.findByEmail(email).orElseThrow().getRole();
+    }
+
+    // what AuthService.login does before issuing the refresh token
+    private void singleLookupLogin(String email) {
+        UserPrincipal user = userService.validateUser(email, PASSWORD);
+        jwtUtil.generateToken(user.email(), user.role());
+    }
+
+    private Result run(int logins, Login login) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(logins);
+        for (int i = 0; i < logins; i++) {
+            String email = emails.get(i % emails.size());
+            futures.add(pool.submit(() -> {
+                login.run(email);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        pool.shutdown();
+
+        return new Result(logins, elapsed, statistics.getPrepareStatementCount());
+    }
+
+    private interface Login {
+        void run(String email) throws Exception;
+    }
+
+    private record Result(int logins, long nanos, long statements) {
+
+        double perSecond() {
+            return logins / (nanos / 1_000_000_000.0);
+        }
+
+        double statementsPerLogin() {
+            return statements / (double) logins;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package rs.example.carbon_traders.auth.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class TokenRevocationListTest {
+
+    private final TokenRevocationList revocationList = new TokenRevocationList(new SimpleMeterRegistry());
+
+    @Test
+    void revokedTokenIsDeniedUntilItsExp() {
+        revocationList.revoke("jti-1", "a@test", System.currentTimeMillis() + 60_000);
+
+        assertTrue(revocationList.isRevoked("jti-1"));
+        assertFalse(revocationList.isRevoked("jti-2"));
+        assertFalse(revocationList.isRevoked(null));
+    }
+
+    @Test
+    void expiredTokensAreNotKeptAndArePurged() throws InterruptedException {
+        revocationList.revoke("old", "a@test", System.currentTimeMillis() - 1);
+        assertEquals(0, revocationList.size());
+
+        revocationList.revoke("short", "a@test", System.currentTimeMillis() + 20);
+        Thread.sleep(40);
+
+        assertFalse(revocationList.isRevoked("short"));
+        revocationList.purge();
+        assertEquals(0, revocationList.size());
+    }
+}
@@ -0,0 +1,273 @@
+package rs.example.carbon_traders.blockchain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.crypto.Credentials;
+import org.web3j.crypto.Hash;
+import org.web3j.crypto.RawTransaction;
+import org.web3j.crypto.TransactionDecoder;
+import org.web3j.protocol.Service;
+import org.web3j.protocol.Web3j;
+
+// runs the submission pipeline against an in-process stand-in for a JSON-RPC node
+class BlockchainSubmissionQueueTest {
+
+    private static final String CONTRACT = "0x5FbDB2315678afecb367f032d93F642f64180aa3";
+    private static final String FARMER = "0x70997970C51812dc3A010C7d01b50e0d17dc79C8";
+    private static final String MULTICALL_SELECTOR = Hash.sha3String("multicall(bytes[])").substring(0, 10);
+
+    private StandInNode node;
+    private ReceiptTracker receiptTracker;
+    private BlockchainSubmissionQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        node = new StandInNode();
+        Web3j web3j = Web3j.build(node);
+        Credentials credentials = Credentials.create("0x0000000000000000000000000000000000000000000000000000000000000001");
+
+        receiptTracker = new ReceiptTracker(web3j, 60_000);
+        queue = new BlockchainSubmissionQueue(
+                web3j,
+                credentials,
+                new NonceManager(web3j, credentials),
+                new NodeGasPriceStrategy(web3j, 10, 500, 60_000, 250_000),
+                receiptTracker,
+                CONTRACT,
+                31337,
+                10,
+                300,
+                1000);
+        queue.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        queue.stop();
+    }
+
+    @Test
+    void concurrentCallsArePackedIntoMulticallsWithConsecutiveNonces() throws Exception {
+        node.transactionCount.set(7);
+
+        ExecutorService callers = Executors.newFixedThreadPool(25);
+        List<ChainOperation> operations = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            long amount = i + 1;
+            callers.submit(() -> operations.add(queue.enqueue(issue(amount))));
+        }
+        callers.shutdown();
+        assertTrue(callers.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (ChainOperation operation : operations) {
+            operation.getSubmitted().get(10, TimeUnit.SECONDS);
+        }
+
+        List<RawTransaction> sent = node.sent;
+        assertTrue(sent.size() >= 3 && sent.size() < 25, "expected batching, got " + sent.size() + " txs");
+
+        int calls = 0;
+        for (int i = 0; i < sent.size(); i++) {
+            RawTransaction tx = sent.get(i);
+            assertEquals(BigInteger.valueOf(7 + i), tx.getNonce());
+            assertTrue(tx.getTo().equalsIgnoreCase(CONTRACT));
+            calls += callsIn(tx);
+        }
+        assertEquals(25, calls);
+    }
+
+    @Test
+    void rejectedNonceIsResyncedAndRetried() throws Exception {
+        node.transactionCount.set(3);
+        node.rejectNextWithNonceError.set(true);
+
+        // another signer used the key, the node rejects nonce 3 and is now at 12
+        ChainOperation first = queue.enqueue(issue(1));
+        first.getSubmitted().get(10, TimeUnit.SECONDS);
+
+        ChainOperation second = queue.enqueue(issue(2));
+        second.getSubmitted().get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of(BigInteger.valueOf(12), BigInteger.valueOf(13)),
+                node.sent.stream().map(RawTransaction::getNonce).toList());
+    }
+
+    @Test
+    void receiptsConfirmOperations() throws Exception {
+        ChainOperation operation = queue.enqueue(issue(5));
+        String txHash = operation.getSubmitted().get(10, TimeUnit.SECONDS);
+
+        receiptTracker.poll();
+        assertEquals(1, receiptTracker.pendingCount());
+
+        node.mine(txHash, true);
+        receiptTracker.poll();
+
+        assertEquals(txHash, operation.getConfirmed().get(1, TimeUnit.SECONDS).getTransactionHash());
+        assertEquals(0, receiptTracker.pendingCount());
+    }
+
+    @Test
+    void revertedBatchIsResentCallByCall() throws Exception {
+        List<ChainOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            operations.add(queue.enqueue(issue(i + 1)));
+        }
+        String batchHash = operations.get(0).getSubmitted().get(10, TimeUnit.SECONDS);
+        assertEquals(1, node.sent.size());
+        assertEquals(3, callsIn(node.sent.get(0)));
+
+        node.mine(batchHash, false);
+        receiptTracker.poll();
+
+        // handed back to the submitter thread, which sends them one per transaction
+        awaitSent(4);
+        assertEquals(4, node.sent.size());
+        for (RawTransaction tx : node.sent.subList(1, 4)) {
+            assertEquals(1, callsIn(tx));
+        }
+
+        node.mineAll(true);
+        receiptTracker.poll();
+        for (ChainOperation operation : operations) {
+            assertTrue(operation.getConfirmed().get(1, TimeUnit.SECONDS).isStatusOK());
+        }
+    }
+
+    @Test
+    void batchHeldByTheSubmitterIsSentOnShutdown() throws Exception {
+        // the submitter has taken the call and is waiting out the batch window
+        ChainOperation operation = queue.enqueue(issue(7));
+        Thread.sleep(50);
+
+        queue.stop();
+
+        assertTrue(operation.getSubmitted().isDone());
+        assertEquals(1, node.sent.size());
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (node.sent.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static ChainOperation issue(long amount) {
+        return ChainOperation.issue(FARMER, amount, "FARMER-0001", "45.2671N 19.8335E",
+                1_700_000_000L, 1_700_100_000L, 1_700_200_000L, 1_700_300_000L, "ipfs://Qm");
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static int callsIn(RawTransaction tx) {
+        String data = tx.getData().startsWith("0x") ? tx.getData() : "0x" + tx.getData();
+        if (!data.startsWith(MULTICALL_SELECTOR)) {
+            return 1;
+        }
+        List<Type> decoded = FunctionReturnDecoder.decode(
+                data.substring(MULTICALL_SELECTOR.length()),
+                (List) List.of(new TypeReference<DynamicArray<DynamicBytes>>() {
+                }));
+        return ((DynamicArray<?>) decoded.get(0)).getValue().size();
+    }
+
+    // answers only the JSON-RPC methods the pipeline uses
+    private static class StandInNode extends Service {
+
+        final AtomicLong transactionCount = new AtomicLong();
+        final AtomicBoolean rejectNextWithNonceError = new AtomicBoolean();
+        final List<RawTransaction> sent = new CopyOnWriteArrayList<>();
+        final Set<String> pending = ConcurrentHashMap.newKeySet();
+        final Map<String, Boolean> mined = new ConcurrentHashMap<>();
+
+        StandInNode() {
+            super(false);
+        }
+
+        void mine(String txHash, boolean success) {
+            pending.remove(txHash);
+            mined.put(txHash, success);
+        }
+
+        void mineAll(boolean success) {
+            for (String txHash : Set.copyOf(pending)) {
+                mine(txHash, success);
+            }
+        }
+
+        @Override
+        protected InputStream performIO(String payload) throws IOException {
+            JsonNode request = objectMapper.readTree(payload);
+            ObjectNode response = objectMapper.createObjectNode();
+            response.put("jsonrpc", "2.0");
+            response.set("id", request.get("id"));
+
+            String method = request.get("method").asText();
+            JsonNode params = request.get("params");
+            switch (method) {
+                case "eth_getTransactionCount" ->
+                        response.put("result", "0x" + Long.toHexString(transactionCount.get()));
+                case "eth_gasPrice" -> response.put("result", "0x3b9aca00");
+                case "eth_sendRawTransaction" -> {
+                    if (rejectNextWithNonceError.getAndSet(false)) {
+                        transactionCount.set(12);
+                        ObjectNode error = response.putObject("error");
+                        error.put("code", -32000);
+                        error.put("message", "nonce too low");
+                    } else {
+                        String signed = params.get(0).asText();
+                        sent.add(TransactionDecoder.decode(signed));
+                        String txHash = Hash.sha3(signed);
+                        pending.add(txHash);
+                        response.put("result", txHash);
+                    }
+                }
+                case "eth_getTransactionReceipt" -> {
+                    String txHash = params.get(0).asText();
+                    Boolean success = mined.get(txHash);
+                    if (success == null) {
+                        response.putNull("result");
+                    } else {
+                        ObjectNode receipt = response.putObject("result");
+                        receipt.put("transactionHash", txHash);
+                        receipt.put("blockNumber", "0x1");
+                        receipt.put("status", success ? "0x1" : "0x0");
+                    }
+                }
+                default -> throw new IOException("Unsupported method " + method);
+            }
+            return new ByteArrayInputStream(objectMapper.writeValueAsBytes(response));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
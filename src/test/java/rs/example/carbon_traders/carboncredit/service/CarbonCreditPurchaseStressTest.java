@@ -0,0 +1,119 @@
+package rs.example.carbon_traders.carboncredit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import rs.example.carbon_traders.TestAccounts;
+import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
+import rs.example.carbon_traders.carboncredit.enums.PurchaseStrategy;
+import rs.example.carbon_traders.carboncredit.repository.CarbonCreditRepository;
+import rs.example.carbon_traders.company.entity.Company;
+import rs.example.carbon_traders.company.repository.CompanyRepository;
+import rs.example.carbon_traders.farmer.entity.Farmer;
+import rs.example.carbon_traders.farmer.repository.FarmerRepository;
+import rs.example.carbon_traders.user.repository.UserRepository;
+
+// hammers one lot from hundreds of threads and checks nothing is oversold or lost.
+// buyCredits is called directly, so any conflict handling has to come from the strategy
+@Slf4j
+@SpringBootTest(properties = {
+        "trading.engine.enabled=false",
+        "carbon-credit.purchase.max-attempts=50",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.orm.jdbc.bind=INFO"
+})
+class CarbonCreditPurchaseStressTest {
+
+    private static final int THREADS = 200;
+    private static final int PURCHASES_PER_THREAD = 10;
+    private static final double SUPPLY = 1000.0;
+
+    @Autowired
+    private CarbonCreditService carbonCreditService;
+
+    @Autowired
+    private CarbonCreditRepository carbonCreditRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FarmerRepository farmerRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @ParameterizedTest
+    @EnumSource(PurchaseStrategy.class)
+    void concurrentBuyersNeverOversell(PurchaseStrategy strategy) throws Exception {
+
+        TestAccounts accounts = new TestAccounts(userRepository, farmerRepository, companyRepository, "Stress");
+        Farmer farmer = accounts.newFarmer();
+        Company company = accounts.newCompany();
+        CarbonCredit lot = carbonCreditService.generateCredits(farmer, SUPPLY, 10.0);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < PURCHASES_PER_THREAD; i++) {
+                    try {
+                        carbonCreditService.buyCredits(lot.getId(), company, 1.0, strategy);
+                        succeeded.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsedNanos = System.nanoTime() - began;
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        CarbonCredit after = carbonCreditRepository.findById(lot.getId()).orElseThrow();
+        int attempts = THREADS * PURCHASES_PER_THREAD;
+
+        log.info("{}: {} ok, {} rejected, {} purchases/s",
+                strategy, succeeded.get(), rejected.get(),
+                Math.round(attempts / (elapsedNanos / 1_000_000_000.0)));
+
+        // no lost update: every acknowledged purchase is in the balance, nothing oversold
+        assertEquals(attempts, succeeded.get() + rejected.get());
+        assertEquals(succeeded.get(), after.getSoldCredits(), 1e-9);
+        assertEquals(SUPPLY - succeeded.get(), after.getAvailableCredits(), 1e-9);
+        assertTrue(after.getAvailableCredits() >= 0);
+
+        // demand is twice the supply, so the single-statement path always sells out
+        if (strategy == PurchaseStrategy.CONDITIONAL_UPDATE) {
+            assertEquals(SUPPLY, succeeded.get(), 0.0);
+            assertEquals("SOLD", after.getStatus());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package rs.example.carbon_traders.common.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.env.MockEnvironment;
+
+// per-request cost of classify + tryAcquire, which is all RateLimitFilter adds to a request.
+// budget is 1µs per request; the timing test only runs with -Dbenchmarks=true, on a quiet
+// machine, and the logged numbers are what to compare across changes
+@Slf4j
+class RateLimiterBenchmarkTest {
+
+    private static final int PRINCIPALS = 10_000;
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 2_000_000;
+    private static final long BUDGET_NANOS = 1_000;
+
+    private final String[] principals = new String[PRINCIPALS];
+
+    RateLimiterBenchmarkTest() {
+        for (int i = 0; i < PRINCIPALS; i++) {
+            principals[i] = "user" + i + "@bench.test";
+        }
+    }
+
+    @Test
+    void bucketAllowsBurstThenRefuses() {
+        RateLimiter limiter = limiter(1, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a@b.c", EndpointClass.TRADING));
+        }
+        long wait = limiter.tryAcquire("a@b.c", EndpointClass.TRADING);
+        assertTrue(wait > 0 && wait <= 1_000_000_000L, "expected to wait up to one interval, got " + wait);
+
+        // other principals and other classes have their own buckets
+        assertEquals(0, limiter.tryAcquire("x@y.z", EndpointClass.TRADING));
+        assertEquals(0, limiter.tryAcquire("a@b.c", EndpointClass.READ_ONLY));
+    }
+
+    @Test
+    void bucketCountStaysBounded() {
+        // buckets refill within a nanosecond, so every one is full again by the sweep
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("security.rate-limit.max-buckets", "100")
+                .withProperty("security.rate-limit.trading.rate-per-second", "1000000000");
+        RateLimiter limiter = new RateLimiter(new SimpleMeterRegistry(), environment);
+
+        for (String principal : principals) {
+            limiter.tryAcquire(principal, EndpointClass.TRADING);
+        }
+        assertTrue(limiter.bucketCount() <= 100, "buckets: " + limiter.bucketCount());
+
+        // the scheduled sweep, not the request path, makes room again
+        limiter.sweep();
+        assertEquals(0, limiter.bucketCount());
+    }
+
+    @Test
+    @Tag("benchmark")
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void perRequestOverheadIsUnderOneMicrosecond() throws Exception {
+        // rates high enough that the allow path, the common one, is what gets measured
+        RateLimiter limiter = limiter(1_000_000_000, 1_000_000);
+
+        // warm up (JIT, bucket creation)
+        singleThreaded(limiter, ITERATIONS);
+
+        double single = singleThreaded(limiter, ITERATIONS);
+        double contended = multiThreaded(limiter, ITERATIONS / THREADS, false);
+        double hotKey = multiThreaded(limiter, ITERATIONS / THREADS, true);
+
+        RateLimiter tight = limiter(1, 1);
+        singleThreaded(tight, ITERATIONS);
+        double refused = singleThreaded(tight, ITERATIONS);
+
+        log.info("rate limit, 1 thread: {} ns/request", Math.round(single));
+        log.info("rate limit, {} threads: {} ns/request", THREADS, Math.round(contended));
+        log.info("rate limit, {} threads, one principal: {} ns/request", THREADS, Math.round(hotKey));
+        log.info("rate limit, refused: {} ns/request", Math.round(refused));
+
+        assertTrue(single < BUDGET_NANOS, "single thread: " + single + " ns");
+        assertTrue(contended < BUDGET_NANOS, "contended: " + contended + " ns");
+        assertTrue(hotKey < BUDGET_NANOS, "one principal: " + hotKey + " ns");
+        assertTrue(refused < BUDGET_NANOS, "refused: " + refused + " ns");
+    }
+
+    private double singleThreaded(RateLimiter limiter, int iterations) {
+        long sink = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += request(limiter, principals[i % PRINCIPALS], i);
+        }
+        long elapsed = System.nanoTime() - started;
+        consume(sink);
+        return elapsed / (double) iterations;
+    }
+
+    // CPU nanoseconds per request on each thread, averaged over threads; CPU time rather than
+    // wall time so the figure holds on machines with fewer cores than THREADS
+    private double multiThreaded(RateLimiter limiter, int iterations, boolean samePrincipal) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<Double>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t * (PRINCIPALS / THREADS);
+            futures.add(pool.submit(() -> {
+                long sink = 0;
+                long started = threads.getCurrentThreadCpuTime();
+                for (int i = 0; i < iterations; i++) {
+                    String principal = samePrincipal ? principals[0] : principals[(offset + i) % PRINCIPALS];
+                    sink += request(limiter, principal, i);
+                }
+                long elapsed = threads.getCurrentThreadCpuTime() - started;
+                consume(sink);
+                return elapsed / (double) iterations;
+            }));
+        }
+
+        double total = 0;
+        for (Future<Double> future : futures) {
+            total += future.get();
+        }
+        pool.shutdown();
+        return total / THREADS;
+    }
+
+    // what RateLimitFilter does per request once it has the principal
+    private static long request(RateLimiter limiter, String principal, int i) {
+        EndpointClass endpointClass = (i & 1) == 0
+                ? EndpointClass.classify("POST", "/api/credits/purchase")
+                : EndpointClass.classify("GET", "/api/credits/marketplace");
+        return limiter.tryAcquire(principal, endpointClass);
+    }
+
+    private static RateLimiter limiter(double ratePerSecond, int burst) {
+        MockEnvironment environment = new MockEnvironment();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "security.rate-limit." + endpointClass.key();
+            environment.setProperty(prefix + ".rate-per-second", String.valueOf(ratePerSecond));
+            environment.setProperty(prefix + ".burst", String.valueOf(burst));
+        }
+        return new RateLimiter(new SimpleMeterRegistry(), environment);
+    }
+
+    // keeps the JIT from discarding the measured calls
+    private static volatile long blackhole;
+
+    private static void consume(long value) {
+        blackhole ^= value;
+    }
+}
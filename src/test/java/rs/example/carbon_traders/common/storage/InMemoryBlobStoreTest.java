@@ -0,0 +1,75 @@
+package rs.example.carbon_traders.common.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+// reference counting as seen by callers: every put/adopt/retain is paired with a release
+class InMemoryBlobStoreTest {
+
+    private final InMemoryBlobStore store = new InMemoryBlobStore();
+
+    @Test
+    void identicalContentIsStoredOnceAndFreedWithTheLastReference() {
+        BlobRef first = put("soil report");
+        BlobRef second = put("soil report");
+
+        assertEquals(first.getDigest(), second.getDigest());
+        assertEquals(1, store.release(first.getDigest()));
+        assertTrue(store.exists(first.getDigest()));
+
+        assertEquals(0, store.release(second.getDigest()));
+        assertFalse(store.exists(first.getDigest()));
+    }
+
+    @Test
+    void retainKeepsTheBlobUntilReleased() {
+        BlobRef blob = put("crop photo");
+        store.retain(blob.getDigest());
+
+        assertEquals(1, store.release(blob.getDigest()));
+        assertEquals(0, store.release(blob.getDigest()));
+        assertFalse(store.exists(blob.getDigest()));
+        assertThrows(RuntimeException.class, () -> store.retain(blob.getDigest()));
+    }
+
+    @Test
+    void releasingTheLastReferenceRemovesTheSpilledFile() {
+        BlobRef blob = put("image for the python worker");
+        Path spilled = store.localPath(blob.getDigest());
+        assertTrue(Files.exists(spilled));
+
+        assertEquals(0, store.release(blob.getDigest()));
+        assertFalse(Files.exists(spilled));
+    }
+
+    @Test
+    void adoptTakesOverTheStagingFile() throws Exception {
+        Path staged = store.stagingFile();
+        Files.writeString(staged, "staged upload");
+
+        BlobRef blob = store.adopt(staged);
+
+        assertFalse(Files.exists(staged));
+        assertEquals("staged upload", new String(store.open(blob.getDigest()).readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(0, store.release(blob.getDigest()));
+    }
+
+    @Test
+    void oversizedContentIsRejected() {
+        byte[] bytes = new byte[11];
+        assertThrows(RuntimeException.class, () -> store.put(new ByteArrayInputStream(bytes), 10));
+    }
+
+    private BlobRef put(String content) {
+        return store.put(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,152 @@
+package rs.example.carbon_traders.trading.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
+import rs.example.carbon_traders.carboncredit.repository.CarbonCreditRepository;
+import rs.example.carbon_traders.common.exception.BusinessException;
+import rs.example.carbon_traders.farmer.entity.Farmer;
+import rs.example.carbon_traders.trading.entity.FailedTrade;
+import rs.example.carbon_traders.trading.model.Fill;
+import rs.example.carbon_traders.trading.repository.FailedTradeRepository;
+import rs.example.carbon_traders.trading.service.TradeRecorder;
+import rs.example.carbon_traders.transaction.entity.CreditTransaction;
+
+// the engine against stand-in repositories; the recorder only collects the fills it is handed
+class MatchingEngineTest {
+
+    private final CarbonCreditRepository carbonCreditRepository = mock(CarbonCreditRepository.class);
+    private final FailedTradeRepository failedTradeRepository = mock(FailedTradeRepository.class);
+    private final TradeRecorder tradeRecorder = mock(TradeRecorder.class);
+    private final List<Fill> recorded = new CopyOnWriteArrayList<>();
+
+    private MatchingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        when(tradeRecorder.record(any(Fill.class), any(CreditTransaction.class))).thenAnswer(call -> {
+            recorded.add(call.getArgument(0));
+            return CompletableFuture.completedFuture(call.getArgument(1));
+        });
+        engine = new MatchingEngine(carbonCreditRepository, tradeRecorder, failedTradeRepository,
+                true, 1024, 2000, 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+    }
+
+    @Test
+    void concurrentBuyersAreMatchedOneAtATime() throws Exception {
+        listLots(lot(1L, 100.0));
+        engine.start();
+
+        ExecutorService buyers = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            long companyId = i;
+            results.add(buyers.submit(() -> {
+                try {
+                    engine.buyLot(1L, companyId, 1, MatchingEngineTest::toTransaction);
+                    return true;
+                } catch (BusinessException e) {
+                    return false;
+                }
+            }));
+        }
+        buyers.shutdown();
+        buyers.awaitTermination(10, TimeUnit.SECONDS);
+
+        int bought = 0;
+        for (Future<Boolean> result : results) {
+            bought += result.get() ? 1 : 0;
+        }
+        assertEquals(100, bought);
+
+        // handed over in engine order, so every fill sees the balance the previous one left
+        assertEquals(100, recorded.size());
+        for (int i = 0; i < recorded.size(); i++) {
+            assertEquals(99 - i, recorded.get(i).getLotRemaining(), OrderBook.EPSILON);
+        }
+    }
+
+    @Test
+    void parkedFillsAreTakenOffTheSeededSupply() {
+        listLots(lot(1L, 100.0), lot(2L, 50.0));
+        when(failedTradeRepository.findAll()).thenReturn(List.of(
+                parked(1L, 60.0), parked(1L, 40.0), parked(2L, 0.0)));
+        engine.start();
+
+        BusinessException tooMuch = assertThrows(BusinessException.class,
+                () -> engine.buyLot(1L, 7L, 41, MatchingEngineTest::toTransaction));
+        assertEquals("Not enough credits available", tooMuch.getMessage());
+        engine.buyLot(1L, 7L, 40, MatchingEngineTest::toTransaction);
+
+        BusinessException soldOut = assertThrows(BusinessException.class,
+                () -> engine.buyLot(2L, 7L, 1, MatchingEngineTest::toTransaction));
+        assertEquals("Carbon credit not found", soldOut.getMessage());
+    }
+
+    @Test
+    void nonPositiveQuantitiesAreRejectedBeforeQueueing() {
+        // not started, so anything that reached the inbox would time out instead
+        for (double quantity : new double[] {0, -1, Double.NaN, Double.NEGATIVE_INFINITY}) {
+            assertThrows(BusinessException.class,
+                    () -> engine.buyLot(1L, 7L, quantity, MatchingEngineTest::toTransaction));
+            assertThrows(BusinessException.class, () -> engine.placeBuy(7L, 5.0, quantity, true));
+            assertThrows(BusinessException.class, () -> engine.placeBuy(7L, quantity, 1, true));
+        }
+    }
+
+    private void listLots(CarbonCredit... lots) {
+        when(carbonCreditRepository.findByAvailableCreditsGreaterThan(anyDouble()))
+                .thenReturn(new ArrayList<>(List.of(lots)));
+    }
+
+    private static CarbonCredit lot(Long id, double available) {
+        Farmer farmer = mock(Farmer.class);
+        when(farmer.getId()).thenReturn(10L);
+        return CarbonCredit.builder()
+                .id(id)
+                .farmer(farmer)
+                .totalCredits(available)
+                .availableCredits(available)
+                .pricePerCredit(5.0)
+                .build();
+    }
+
+    private static FailedTrade parked(Long lotId, double lotRemaining) {
+        return FailedTrade.builder()
+                .lotId(lotId)
+                .quantity(1.0)
+                .lotRemaining(lotRemaining)
+                .build();
+    }
+
+    private static CreditTransaction toTransaction(Fill fill) {
+        return CreditTransaction.builder()
+                .creditsPurchased(fill.getQuantity())
+                .pricePerCredit(fill.getPricePerCredit())
+                .status("SUCCESS")
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package rs.example.carbon_traders.trading.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import rs.example.carbon_traders.common.exception.BusinessException;
+import rs.example.carbon_traders.trading.model.Fill;
+import rs.example.carbon_traders.trading.model.MatchResult;
+
+class OrderBookTest {
+
+    private final OrderBook book = new OrderBook();
+
+    @Test
+    void asksAreTakenCheapestFirstThenOldestFirst() {
+        book.addOffer(1L, 10L, 10.0, 5);
+        book.addOffer(2L, 20L, 8.0, 5);
+        book.addOffer(3L, 30L, 8.0, 5);
+
+        MatchResult result = book.placeBuy(100L, 10.0, 12, true);
+
+        List<Fill> fills = result.getFills();
+        assertEquals(3, fills.size());
+        assertEquals(2L, fills.get(0).getLotId());
+        assertEquals(3L, fills.get(1).getLotId());
+        assertEquals(1L, fills.get(2).getLotId());
+        assertEquals(2, fills.get(2).getQuantity(), OrderBook.EPSILON);
+        assertEquals(3, fills.get(2).getLotRemaining(), OrderBook.EPSILON);
+        assertEquals(10.0, book.bestAsk());
+    }
+
+    @Test
+    void partialFillsKeepTheRestOfTheLotListed() {
+        book.addOffer(1L, 10L, 5.0, 10);
+
+        Fill first = book.buyLot(1L, 100L, 3);
+        assertEquals(7, first.getLotRemaining(), OrderBook.EPSILON);
+        assertEquals(7, book.availableInLot(1L), OrderBook.EPSILON);
+
+        BusinessException tooMuch = assertThrows(BusinessException.class, () -> book.buyLot(1L, 100L, 8));
+        assertEquals("Not enough credits available", tooMuch.getMessage());
+        assertEquals(7, book.availableInLot(1L), OrderBook.EPSILON);
+
+        Fill last = book.buyLot(1L, 101L, 7);
+        assertEquals(0, last.getLotRemaining(), OrderBook.EPSILON);
+        assertEquals(0, book.offerCount());
+        assertNull(book.bestAsk());
+    }
+
+    @Test
+    void immediateOrCancelRemainderIsDropped() {
+        book.addOffer(1L, 10L, 8.0, 4);
+
+        MatchResult result = book.placeBuy(100L, 9.0, 10, true);
+
+        assertEquals(4, result.getFilledQuantity(), OrderBook.EPSILON);
+        assertEquals(0, result.getRestingQuantity(), OrderBook.EPSILON);
+        assertEquals(0, book.restingBuyCount());
+        assertNull(book.bestBid());
+    }
+
+    @Test
+    void restingBidsAreFilledInArrivalOrderAtTheLotPrice() {
+        MatchResult first = book.placeBuy(100L, 10.0, 4, false);
+        MatchResult second = book.placeBuy(101L, 10.0, 4, false);
+        assertEquals(4, first.getRestingQuantity(), OrderBook.EPSILON);
+        assertEquals(2, book.restingBuyCount());
+
+        List<Fill> fills = book.addOffer(1L, 10L, 9.0, 6);
+
+        assertEquals(2, fills.size());
+        assertEquals(100L, fills.get(0).getCompanyId());
+        assertEquals(4, fills.get(0).getQuantity(), OrderBook.EPSILON);
+        assertEquals(9.0, fills.get(0).getPricePerCredit(), OrderBook.EPSILON);
+        assertEquals(101L, fills.get(1).getCompanyId());
+        assertEquals(2, fills.get(1).getQuantity(), OrderBook.EPSILON);
+
+        // the second order keeps its remainder, the lot is used up
+        assertEquals(1, book.restingBuyCount());
+        assertEquals(0, book.offerCount());
+        assertTrue(book.cancelBuy(second.getOrderId()));
+        assertFalse(book.cancelBuy(first.getOrderId()));
+        assertNull(book.bestBid());
+    }
+
+    @Test
+    void nonPositiveAndNonFiniteAmountsAreRejected() {
+        book.addOffer(1L, 10L, 5.0, 10);
+
+        for (double quantity : new double[] {0, -5, Double.NaN, Double.POSITIVE_INFINITY}) {
+            assertThrows(BusinessException.class, () -> book.buyLot(1L, 100L, quantity));
+            assertThrows(BusinessException.class, () -> book.placeBuy(100L, 5.0, quantity, false));
+            assertThrows(BusinessException.class, () -> book.placeBuy(100L, quantity, 1, false));
+            assertThrows(BusinessException.class, () -> book.addOffer(2L, 10L, 5.0, quantity));
+        }
+
+        assertEquals(10, book.availableInLot(1L), OrderBook.EPSILON);
+        assertEquals(0, book.restingBuyCount());
+        assertEquals(1, book.offerCount());
+    }
+}
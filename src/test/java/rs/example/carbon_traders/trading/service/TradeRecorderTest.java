@@ -0,0 +1,134 @@
+package rs.example.carbon_traders.trading.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import rs.example.carbon_traders.admin.service.PlatformStatsService;
+import rs.example.carbon_traders.carboncredit.entity.CarbonCredit;
+import rs.example.carbon_traders.carboncredit.repository.CarbonCreditRepository;
+import rs.example.carbon_traders.carboncredit.service.MarketplaceView;
+import rs.example.carbon_traders.company.entity.Company;
+import rs.example.carbon_traders.company.repository.CompanyRepository;
+import rs.example.carbon_traders.farmer.repository.FarmerRepository;
+import rs.example.carbon_traders.trading.enums.FailedTradeStatus;
+import rs.example.carbon_traders.trading.model.Fill;
+import rs.example.carbon_traders.trading.repository.FailedTradeRepository;
+import rs.example.carbon_traders.transaction.entity.CreditTransaction;
+import rs.example.carbon_traders.transaction.repository.TransactionRepository;
+import rs.example.carbon_traders.transaction.service.TransactionOutbox;
+
+// the recorder against stand-in repositories and a transaction manager that commits nothing
+class TradeRecorderTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final CarbonCreditRepository carbonCreditRepository = mock(CarbonCreditRepository.class);
+    private final CompanyRepository companyRepository = mock(CompanyRepository.class);
+    private final FailedTradeRepository failedTradeRepository = mock(FailedTradeRepository.class);
+
+    private TradeRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        CarbonCredit lot = CarbonCredit.builder().id(1L).availableCredits(10.0).build();
+        when(carbonCreditRepository.findAllById(any())).thenReturn(List.of(lot));
+        when(companyRepository.getReferenceById(anyLong())).thenReturn(Company.builder().id(7L).build());
+
+        recorder = new TradeRecorder(
+                transactionRepository,
+                carbonCreditRepository,
+                companyRepository,
+                mock(FarmerRepository.class),
+                failedTradeRepository,
+                mock(MarketplaceView.class),
+                mock(TransactionOutbox.class),
+                mock(PlatformStatsService.class),
+                new TransactionTemplate(new NoOpTransactionManager()),
+                10,
+                10,
+                3);
+        recorder.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        recorder.stop();
+    }
+
+    @Test
+    void failingTradeIsRetriedThenParked() throws Exception {
+        when(transactionRepository.saveAll(any())).thenThrow(new IllegalStateException("db down"));
+
+        CreditTransaction stored = recorder.record(fill(), transaction()).get(5, TimeUnit.SECONDS);
+
+        assertEquals("PENDING", stored.getStatus());
+        assertNull(stored.getId());
+        verify(transactionRepository, times(3)).saveAll(any());
+        verify(failedTradeRepository).save(argThat(parked ->
+                parked.getLotId() == 1L
+                        && parked.getStatus() == FailedTradeStatus.PENDING
+                        && parked.getLastError().contains("db down")));
+    }
+
+    @Test
+    void transientFailureIsRetriedWithoutParking() throws Exception {
+        when(transactionRepository.saveAll(any()))
+                .thenThrow(new IllegalStateException("deadlock"))
+                .thenAnswer(call -> call.getArgument(0));
+
+        CreditTransaction stored = recorder.record(fill(), transaction()).get(5, TimeUnit.SECONDS);
+
+        assertEquals("SUCCESS", stored.getStatus());
+        verify(transactionRepository, times(2)).saveAll(any());
+        verify(failedTradeRepository, never()).save(any());
+    }
+
+    private static Fill fill() {
+        return new Fill(1L, 10L, 7L, 2, 5.0, 8, LocalDateTime.now());
+    }
+
+    private static CreditTransaction transaction() {
+        return CreditTransaction.builder()
+                .creditsPurchased(2.0)
+                .pricePerCredit(5.0)
+                .totalAmount(10.0)
+                .status("SUCCESS")
+                .build();
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}